@@ -0,0 +1,41 @@
+package com.example.spring_data_jpa_tutorial.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Inserts a synthetic catalog with JDBC batches. Category c is named "Benchmark Category c",
+// product i "Benchmark Product i", and product i belongs to category i % categoryCount.
+final class CatalogSeeder {
+
+    // Seeded rows get ids far above what the sequences hand out to the application
+    static final long ID_OFFSET = 10_000_000L;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private CatalogSeeder() {
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int categoryCount, int productCount) {
+        List<Object[]> categories = new ArrayList<>(categoryCount);
+        for (int c = 0; c < categoryCount; c++) {
+            categories.add(new Object[]{ID_OFFSET + c, "Benchmark Category " + c, "Benchmark category number " + c});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO category (id, name, description, version) VALUES (?, ?, ?, 0)", categories);
+
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < productCount; i++) {
+            batch.add(new Object[]{ID_OFFSET + i, "Benchmark Product " + i, price(i),
+                    "Description of benchmark product " + i, ID_OFFSET + i % categoryCount});
+            if (batch.size() == INSERT_BATCH_SIZE || i == productCount - 1) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    static double price(int productIndex) {
+        return 1 + (productIndex * 7919L % 100_000) / 100.0;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.spring_data_jpa_tutorial.benchmark;
+
+import com.example.spring_data_jpa_tutorial.SpringDataJpaApplication;
+import com.example.spring_data_jpa_tutorial.index.PriceRangeIndex;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.example.spring_data_jpa_tutorial.service.PriceRangeQueryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Starts the application without the web layer and seeds an in-memory catalog of the requested size.
+// Benchmarks share one catalog per (productCount, categoryCount) combination.
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    @Param({"10000", "100000", "1000000"})
+    public int productCount;
+
+    @Param({"20"})
+    public int categoryCount;
+
+    public ConfigurableApplicationContext context;
+    public ProductRepository productRepository;
+    public PriceRangeQueryService priceRangeQueryService;
+    public ObjectMapper objectMapper;
+
+    // Parameters that select a typical slice of the catalog
+    public String categoryName;
+    public Long categoryId;
+    public Long productId;
+    public String productName;
+    public Double productPrice;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(SpringDataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.devtools.restart.enabled=false",
+                        "app.coalescing.enabled=false", // every invocation must run its query
+                        "app.price-index.enabled=true",
+                        "app.outbox.relay.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        priceRangeQueryService = context.getBean(PriceRangeQueryService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(PriceRangeIndex.class).rebuild(); // seeded with plain SQL
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        CatalogSeeder.seed(jdbcTemplate, categoryCount, productCount);
+
+        categoryName = "Benchmark Category " + (categoryCount / 2);
+        categoryId = CatalogSeeder.ID_OFFSET + categoryCount / 2;
+        productId = CatalogSeeder.ID_OFFSET + productCount / 2;
+        productName = "Benchmark Product " + (productCount / 2);
+        productPrice = CatalogSeeder.price(productCount / 2);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.spring_data_jpa_tutorial.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of every ProductRepository query against a seeded catalog.
+// Run with "-prof gc" (the profile default) to also get the allocation rate per operation.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class ProductRepositoryBenchmark {
+
+    // --- Derived queries ---
+
+    @Benchmark
+    public List<?> findByName(CatalogState state) {
+        return state.productRepository.findByName(state.productName);
+    }
+
+    @Benchmark
+    public List<?> findByPriceGreaterThan(CatalogState state) {
+        return state.productRepository.findByPriceGreaterThan(995.0);
+    }
+
+    @Benchmark
+    public Optional<?> findByNameAndPrice(CatalogState state) {
+        return state.productRepository.findByNameAndPrice(state.productName, state.productPrice);
+    }
+
+    @Benchmark
+    public List<?> findByNameContainingIgnoreCase(CatalogState state) {
+        return state.productRepository.findByNameContainingIgnoreCase(state.productName);
+    }
+
+    @Benchmark
+    public List<?> findByPriceBetween(CatalogState state) {
+        return state.productRepository.findByPriceBetween(500.0, 505.0);
+    }
+
+    @Benchmark
+    public List<?> findByCategoryName(CatalogState state) {
+        return state.productRepository.findByCategoryName(state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findByCategoryId(CatalogState state) {
+        return state.productRepository.findByCategoryId(state.categoryId);
+    }
+
+    @Benchmark
+    public List<?> findFirstPageById(CatalogState state) {
+        return state.productRepository.findAllByOrderByIdAsc(Limit.of(50));
+    }
+
+    // --- JPQL ---
+
+    @Benchmark
+    public List<?> findProductsWithPriceLessThanAndCategory(CatalogState state) {
+        return state.productRepository.findProductsWithPriceLessThanAndCategory(10.0, state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findProductDetailsByCategoryName(CatalogState state) {
+        return state.productRepository.findProductDetailsByCategoryName(state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findProductsByNamePartAndCategoryDescription(CatalogState state) {
+        return state.productRepository.findProductsByNamePartAndCategoryDescription(state.productName, "number");
+    }
+
+    @Benchmark
+    public List<?> findProductsInPriceRangeAndCategory(CatalogState state) {
+        return state.productRepository.findProductsInPriceRangeAndCategory(100.0, 200.0, state.categoryId);
+    }
+
+    @Benchmark
+    public List<?> findNextPageByPrice(CatalogState state) {
+        return state.productRepository.findNextPageByPrice(500.0, 0L, Limit.of(50));
+    }
+
+    // --- JOIN FETCH ---
+
+    @Benchmark
+    public Optional<?> findByIdWithCategory(CatalogState state) {
+        return state.productRepository.findByIdWithCategory(state.productId);
+    }
+
+    @Benchmark
+    public List<?> findByCategoryNameWithCategory(CatalogState state) {
+        return state.productRepository.findByCategoryNameWithCategory(state.categoryName);
+    }
+
+    // --- Native queries ---
+
+    @Benchmark
+    public List<?> findProductsByCategoryNameNative(CatalogState state) {
+        return state.productRepository.findProductsByCategoryNameNative(state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findProductRowsByCategoryNameNative(CatalogState state) {
+        return state.productRepository.findProductRowsByCategoryNameNative(state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findProductSummaryByCategoryName(CatalogState state) {
+        return state.productRepository.findProductSummaryByCategoryName(state.categoryName);
+    }
+
+    // --- Summary projections ---
+
+    @Benchmark
+    public List<?> findSummariesByCategoryName(CatalogState state) {
+        return state.productRepository.findSummariesByCategoryName(state.categoryName);
+    }
+
+    @Benchmark
+    public List<?> findSummariesInPriceRangeAndCategory(CatalogState state) {
+        return state.productRepository.findSummariesInPriceRangeAndCategory(100.0, 200.0, state.categoryId);
+    }
+
+    // --- In-memory price index (same queries as findByPriceBetween, findByPriceGreaterThan, findProductsInPriceRangeAndCategory) ---
+
+    @Benchmark
+    public List<?> findByPriceBetweenIndexed(CatalogState state) {
+        return state.priceRangeQueryService.findByPriceBetween(500.0, 505.0);
+    }
+
+    @Benchmark
+    public List<?> findByPriceGreaterThanIndexed(CatalogState state) {
+        return state.priceRangeQueryService.findByPriceGreaterThan(995.0);
+    }
+
+    @Benchmark
+    public List<?> findInPriceRangeAndCategoryIndexed(CatalogState state) {
+        return state.priceRangeQueryService.findInPriceRangeAndCategory(100.0, 200.0, state.categoryId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.spring_data_jpa_tutorial.benchmark;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON cost of one category's products as entities (with their category) versus as ProductSummaryDTO rows.
+// Uses the application's ObjectMapper, so registered modules and Jackson settings apply.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Payloads {
+        List<Product> products;
+        List<ProductSummaryDTO> summaries;
+        Category category;
+
+        @Setup(Level.Trial)
+        public void load(CatalogState catalog) {
+            products = catalog.productRepository.findByCategoryNameWithCategory(catalog.categoryName);
+            summaries = products.stream()
+                    .map(p -> new ProductSummaryDTO(p.getId(), p.getName(), p.getPrice(), p.getCategory().getName()))
+                    .toList();
+            category = products.get(0).getCategory();
+        }
+    }
+
+    @Benchmark
+    public byte[] productEntities(CatalogState catalog, Payloads payloads) throws JsonProcessingException {
+        return catalog.objectMapper.writeValueAsBytes(payloads.products);
+    }
+
+    @Benchmark
+    public byte[] productSummaries(CatalogState catalog, Payloads payloads) throws JsonProcessingException {
+        return catalog.objectMapper.writeValueAsBytes(payloads.summaries);
+    }
+
+    @Benchmark
+    public byte[] categoryEntity(CatalogState catalog, Payloads payloads) throws JsonProcessingException {
+        return catalog.objectMapper.writeValueAsBytes(payloads.category);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.spring_data_jpa_tutorial.benchmark;
+
+import com.example.spring_data_jpa_tutorial.SpringDataJpaApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Load test comparing the platform-thread and virtual-thread modes of the same application.
+// Each mode gets its own server and in-memory database seeded with the same catalog, then a fixed number of
+// requests is fired with a fixed concurrency. Throughput, latency percentiles and errors are printed per mode.
+//
+//   ./mvnw -P benchmarks test-compile exec:exec \
+//       -Dbenchmark.main=com.example.spring_data_jpa_tutorial.benchmark.ThreadModelLoadTest -Djmh.args= \
+//       -Dloadtest.concurrency=1000 -Dloadtest.requests=50000
+//
+// Measured with -Dloadtest.concurrency=200 -Dloadtest.requests=5000 -Dloadtest.products=20000 on JDK 21.0.1,
+// 1 vCPU (Xeon), 5 GB RAM, client and server in the same JVM (second of two runs, the first agreed within 10%):
+//
+//   mode                  req/s     p50 ms     p95 ms     p99 ms     max ms   errors
+//   platform                117     1074.2     3585.1     8195.8    11182.4        0
+//   virtual                 218      758.0     1989.8     2867.9     3685.9        0
+public class ThreadModelLoadTest {
+
+    private static final int CATEGORY_COUNT = 20;
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 500);
+        int requests = Integer.getInteger("loadtest.requests", 20_000);
+        int products = Integer.getInteger("loadtest.products", 100_000);
+
+        System.out.printf("%-16s %10s %10s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                CatalogSeeder.seed(context.getBean(JdbcTemplate.class), CATEGORY_COUNT, products);
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                run(virtualThreads ? "virtual" : "platform", port, concurrency, requests, products);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(SpringDataJpaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "spring.devtools.restart.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static void run(String mode, int port, int concurrency, int requests, int products) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<String> paths = List.of(
+                "/api/products/by-category-id/" + (CatalogSeeder.ID_OFFSET + 1) + "?summary=true",
+                "/api/products/by-category-name?categoryName=" + URLEncoder.encode("Benchmark Category 2", StandardCharsets.UTF_8),
+                "/api/products?size=50",
+                "/api/products/price-range-and-category?minPrice=100&maxPrice=150&categoryId=" + (CatalogSeeder.ID_OFFSET + 3));
+
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long started = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                int request = i;
+                clients.submit(() -> {
+                    try {
+                        String path = request % 5 == 0
+                                ? "/api/products/" + (CatalogSeeder.ID_OFFSET + ThreadLocalRandom.current().nextInt(products))
+                                : paths.get(request % paths.size());
+                        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+                        long sent = System.nanoTime();
+                        HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+                        latencies[request] = System.nanoTime() - sent;
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-16s %10.0f %10.1f %10.1f %10.1f %10.1f %8d%n", mode, requests / seconds,
+                millis(latencies, 0.50), millis(latencies, 0.95), millis(latencies, 0.99),
+                latencies[requests - 1] / 1e6, errors.get());
+    }
+
+    private static double millis(long[] sortedLatencies, double percentile) {
+        return sortedLatencies[(int) Math.min(sortedLatencies.length - 1, Math.round(percentile * sortedLatencies.length))] / 1e6;
+    }
+}
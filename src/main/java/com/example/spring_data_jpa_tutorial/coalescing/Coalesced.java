@@ -0,0 +1,17 @@
+package com.example.spring_data_jpa_tutorial.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a repository read method whose concurrent calls with equal arguments share one execution.
+// The result object is handed to every caller, detached from any persistence context, so only use it on
+// methods whose results are fully fetched (entity graph, JOIN FETCH or projection) and not modified by callers.
+// See CoalescingInterceptor.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Coalesced {
+}
@@ -0,0 +1,162 @@
+package com.example.spring_data_jpa_tutorial.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Single-flight for @Coalesced repository methods: the first caller for a method and argument list runs
+// the query, callers arriving while it runs (or within the freshness window after it finished) get the same result.
+// Calls inside a transaction always run their own query, they expect results managed by their persistence context.
+// Shared results must not belong to any caller's persistence context: with open-in-view, the leader's request has
+// an EntityManager bound to its thread, and entities loaded through it would be lazily loaded and dirty-checked
+// by that request while other threads read them. The leader therefore runs the query without that EntityManager,
+// in a persistence context of its own that is closed when the call returns: every caller, the leader included,
+// gets detached results. Coalesced methods must fetch everything callers read (entity graph, JOIN FETCH or
+// projection), and callers must treat the results as read-only.
+// A caller waits at most waitTimeout for another caller's query, then fails with QueryTimeoutException.
+public class CoalescingInterceptor implements MethodInterceptor {
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final Map<Method, Boolean> coalescedMethods = new ConcurrentHashMap<>();
+    private final long freshnessNanos;
+    private final long waitTimeoutNanos;
+    private final MeterRegistry meterRegistry;
+    private final String repositoryName;
+    private final Supplier<EntityManagerFactory> entityManagerFactory;
+
+    public CoalescingInterceptor(MeterRegistry meterRegistry, String repositoryName, Duration freshnessWindow,
+                                 Duration waitTimeout, Supplier<EntityManagerFactory> entityManagerFactory) {
+        this.meterRegistry = meterRegistry;
+        this.repositoryName = repositoryName;
+        this.freshnessNanos = freshnessWindow.toNanos();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!isCoalesced(method) || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+
+        Key key = new Key(method, Arrays.asList(invocation.getArguments()));
+        while (true) {
+            Flight flight = new Flight();
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, invocation);
+            }
+            if (existing.isExpired(System.nanoTime())) {
+                flights.remove(key, existing);
+                continue;
+            }
+            counter(method, "coalesced").increment();
+            try {
+                return existing.await(waitTimeoutNanos);
+            } catch (TimeoutException e) {
+                counter(method, "timed-out").increment();
+                throw new QueryTimeoutException("Gave up waiting for the coalesced call of " + repositoryName + "."
+                        + method.getName() + " after " + Duration.ofNanos(waitTimeoutNanos));
+            }
+        }
+    }
+
+    private Object lead(Key key, Flight flight, MethodInvocation invocation) throws Throwable {
+        counter(invocation.getMethod(), "executed").increment();
+        try {
+            Object result = proceedDetached(invocation);
+            flight.complete(result, System.nanoTime() + freshnessNanos);
+            return result;
+        } catch (Throwable e) {
+            flight.fail(e);
+            flights.remove(key, flight); // waiting callers get the error, later callers retry
+            throw e;
+        } finally {
+            if (freshnessNanos <= 0) {
+                flights.remove(key, flight);
+            } else {
+                // Dropped once stale, so flights of arguments that are not asked for again do not pile up
+                CompletableFuture.delayedExecutor(freshnessNanos, TimeUnit.NANOSECONDS)
+                        .execute(() -> flights.remove(key, flight));
+            }
+        }
+    }
+
+    // Hides the caller's thread-bound (open-in-view) EntityManager for the duration of the query
+    private Object proceedDetached(MethodInvocation invocation) throws Throwable {
+        EntityManagerFactory factory = entityManagerFactory.get();
+        Object boundEntityManager = factory != null ? TransactionSynchronizationManager.unbindResourceIfPossible(factory) : null;
+        try {
+            return invocation.proceed();
+        } finally {
+            if (boundEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(factory, boundEntityManager);
+            }
+        }
+    }
+
+    private boolean isCoalesced(Method method) {
+        return coalescedMethods.computeIfAbsent(method, m -> AnnotatedElementUtils.hasAnnotation(m, Coalesced.class));
+    }
+
+    private Counter counter(Method method, String outcome) {
+        return Counter.builder("repository.coalescing.calls")
+                .description("Calls of @Coalesced repository methods, by whether they ran the query or shared another call's result")
+                .tags("repository", repositoryName, "method", method.getName(), "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record Key(Method method, List<Object> arguments) {
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile boolean done;
+        private volatile long expiresAt; // System.nanoTime() based, only meaningful once done
+
+        void complete(Object value, long expiresAt) {
+            this.expiresAt = expiresAt;
+            this.done = true;
+            result.complete(value);
+        }
+
+        void fail(Throwable e) {
+            this.expiresAt = System.nanoTime();
+            this.done = true;
+            result.completeExceptionally(e);
+        }
+
+        boolean isExpired(long now) {
+            return done && now - expiresAt >= 0;
+        }
+
+        Object await(long timeoutNanos) throws Throwable {
+            try {
+                return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+    }
+}
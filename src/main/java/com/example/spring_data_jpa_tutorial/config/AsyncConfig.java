@@ -0,0 +1,45 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Executors of the asynchronous product API (/api/async). Both are bounded: when they are full,
+// requests are rejected right away (503) instead of queueing up behind slow queries.
+// Boot only adds its applicationTaskExecutor when no other Executor bean exists; spring.task.execution.mode=force
+// keeps it for Spring MVC's own async requests. All of them carry the request's SQL recording (SqlMetricsConfig).
+@Configuration
+public class AsyncConfig {
+
+    public static final String PRODUCT_QUERY_EXECUTOR = "productQueryExecutor";
+    public static final String PRODUCT_STREAM_EXECUTOR = "productStreamExecutor";
+
+    // Repository calls; sized like the connection pool, more threads would only wait for connections
+    @Bean(name = PRODUCT_QUERY_EXECUTOR)
+    public ThreadPoolTaskExecutor productQueryExecutor(@Value("${app.async.pool-size:10}") int poolSize,
+                                                       @Value("${app.async.queue-capacity:100}") int queueCapacity,
+                                                       TaskDecorator taskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-query-");
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
+    }
+
+    // One thread per open server-sent event stream, no queue: a stream either starts now or is rejected
+    @Bean(name = PRODUCT_STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor productStreamExecutor(@Value("${app.async.max-streams:4}") int maxStreams,
+                                                        TaskDecorator taskDecorator) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxStreams);
+        executor.setMaxPoolSize(maxStreams);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("product-stream-");
+        executor.setTaskDecorator(taskDecorator);
+        return executor;
+    }
+}
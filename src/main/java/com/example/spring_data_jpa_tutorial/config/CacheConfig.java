@@ -0,0 +1,92 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+// Hibernate second-level and query cache backed by a local Caffeine JCache.
+// Enabled with app.cache.enabled=true; size and TTL come from application.properties.
+@Configuration
+public class CacheConfig {
+
+    // Region names used by @Cache on the entities and by the query cache hints in ProductRepository
+    public static final String CATEGORY_REGION = "category";
+    public static final String PRODUCT_REGION = "product";
+    public static final String PRODUCT_BY_CATEGORY_NAME_REGION = "product-by-category-name";
+    public static final String DEFAULT_QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.cache.enabled", havingValue = "true")
+    static class Enabled {
+
+        @Value("${app.cache.max-entries:10000}")
+        private long maxEntries;
+
+        @Value("${app.cache.time-to-live:10m}")
+        private Duration timeToLive;
+
+        // The provider's default CacheManager is shared by the whole JVM: a second application context (tests keep
+        // several open) would fail to create the regions again. Each context gets a CacheManager of its own.
+        @Bean(destroyMethod = "close")
+        public CacheManager hibernateCacheManager() {
+            CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            URI uri = URI.create(provider.getDefaultURI() + "#" + getClass().getName() + "@" + System.identityHashCode(this));
+            CacheManager cacheManager = provider.getCacheManager(uri, provider.getDefaultClassLoader());
+            for (String region : List.of(CATEGORY_REGION, PRODUCT_REGION, PRODUCT_BY_CATEGORY_NAME_REGION, DEFAULT_QUERY_RESULTS_REGION)) {
+                CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+                configuration.setMaximumSize(OptionalLong.of(maxEntries));
+                configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+                configuration.setStatisticsEnabled(true);
+                cacheManager.createCache(region, configuration);
+            }
+            // Update timestamps tell Hibernate whether a cached query result is stale.
+            // They must outlive every cached result, so this region is neither size- nor time-bounded.
+            CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+            timestamps.setStatisticsEnabled(true);
+            cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, timestamps);
+            return cacheManager;
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+            return properties -> {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                // Hit/miss counters, exposed by GET /api/admin/cache/stats
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            };
+        }
+    }
+
+    // hibernate-jcache on the classpath makes Hibernate start a JCache region factory by default, which would
+    // create the @Cache regions on the fly without size or TTL limits. Off means off.
+    @Configuration
+    @ConditionalOnProperty(name = "app.cache.enabled", havingValue = "false", matchIfMissing = true)
+    static class Disabled {
+
+        @Bean
+        public HibernatePropertiesCustomizer secondLevelCacheDisabledCustomizer() {
+            return properties -> {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            };
+        }
+    }
+}
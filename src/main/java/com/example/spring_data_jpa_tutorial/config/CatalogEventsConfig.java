@@ -0,0 +1,48 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.event.CatalogChangeHandler;
+import com.example.spring_data_jpa_tutorial.event.CatalogChangeListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Registers CatalogChangeListener with Hibernate so CatalogChangeHandler beans see committed changes
+@Configuration
+public class CatalogEventsConfig {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Resolved on first use: handlers depend on repositories, which are created after the EntityManagerFactory
+    @Autowired
+    private ObjectProvider<CatalogChangeHandler> handlers;
+
+    private volatile List<CatalogChangeHandler> resolvedHandlers;
+
+    @PostConstruct
+    void registerListener() {
+        CatalogChangeListener listener = new CatalogChangeListener(this::handlers);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    private List<CatalogChangeHandler> handlers() {
+        List<CatalogChangeHandler> result = resolvedHandlers;
+        if (result == null) {
+            result = handlers.orderedStream().toList();
+            resolvedHandlers = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.coalescing.CoalescingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.time.Duration;
+
+// Single-flight for @Coalesced repository methods, protecting the connection pool from bursts of identical reads.
+// Opt-in (app.coalescing.enabled=true): callers get shared, detached results (see CoalescingInterceptor).
+@Configuration
+@ConditionalOnProperty(name = "app.coalescing.enabled", havingValue = "true")
+public class CoalescingConfig {
+
+    // Ordered post-processors run before plain ones, so the metrics interceptor (added at position 0 later)
+    // stays outermost and still times every call; coalescing sits right inside it
+    @Bean
+    public static BeanPostProcessor repositoryCoalescingPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<EntityManagerFactory> entityManagerFactory,
+            @Value("${app.coalescing.freshness-window:0ms}") Duration freshnessWindow,
+            @Value("${app.coalescing.wait-timeout:30s}") Duration waitTimeout) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(0,
+                                    new CoalescingInterceptor(meterRegistry.getObject(),
+                                            repositoryInformation.getRepositoryInterface().getSimpleName(), freshnessWindow,
+                                            waitTimeout, entityManagerFactory::getIfAvailable))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+        @Override
+        default int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -8,8 +8,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 @Configuration
+// Sample rows for development: the generate profile seeds a synthetic catalog instead (SyntheticDataLoader),
+// the startup profile runs against a production database
+@Profile("!generate & !startup")
 public class DataLoader {
 
     @Bean
@@ -0,0 +1,93 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read/write splitting (app.datasource.routing.enabled=true): @Transactional(readOnly = true) work, which includes
+// every read method of the Spring Data repositories, runs on the replica pools; all other work on the primary.
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    // Looked up lazily: the routing data source is itself defined in this class
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return primary;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        // An open-in-view session holds on to its first connection for the rest of the request,
+        // so a write after a read would silently go to a replica
+        if (openInView) {
+            throw new IllegalStateException("app.datasource.routing.enabled=true requires spring.jpa.open-in-view=false");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().url(url).type(HikariDataSource.class).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    // The application DataSource: physical connections are only fetched on the first statement,
+    // when the transaction's read-only flag is already set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return () -> {
+            Map<String, Object> details = new LinkedHashMap<>();
+            for (String replica : readWriteRoutingDataSource.getReplicaKeys()) {
+                details.put(replica, Map.of(
+                        "status", readWriteRoutingDataSource.isHealthy(replica) ? "UP" : "DOWN",
+                        "connections", readWriteRoutingDataSource.getRoutedConnections(replica)));
+            }
+            // Reads fall back to the primary when every replica is down, so the application stays up
+            return Health.up().withDetails(details).build();
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-check-interval:PT10S}")
+    public void checkReplicas() {
+        routingDataSource.getObject().checkReplicas();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // Writes lazy associations that were not fetched as their id (or null for collections) instead of
+    // initializing them while the response is serialized, which would run one extra query per entity.
+    // Spring Boot registers every Module bean with the application's ObjectMapper.
+    @Bean
+    public Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
+        module.enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS);
+        return module;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.outbox.OutboxRelay;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// With spring.main.lazy-initialization=true (startup profile) a bean is only created when something needs it.
+// These beans do their work as a side effect of being created and are never requested, so they stay eager:
+// CatalogEventsConfig registers the Hibernate listener behind category stats and the price index,
+// OutboxRelay is only scheduled once it exists.
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerSideEffectBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(CatalogEventsConfig.class, OutboxRelay.class);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.outbox.ApplicationEventOutboxSink;
+import com.example.spring_data_jpa_tutorial.outbox.OutboxSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Scheduling runs the OutboxRelay
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    // In-process delivery unless another OutboxSink bean is defined
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public OutboxSink outboxSink(ApplicationEventPublisher applicationEventPublisher) {
+        return new ApplicationEventOutboxSink(applicationEventPublisher);
+    }
+}
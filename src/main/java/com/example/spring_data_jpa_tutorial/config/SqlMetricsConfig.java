@@ -0,0 +1,95 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.metrics.RepositoryMetricsInterceptor;
+import com.example.spring_data_jpa_tutorial.metrics.ResultSetRowListener;
+import com.example.spring_data_jpa_tutorial.metrics.SqlMetricsFilter;
+import com.example.spring_data_jpa_tutorial.metrics.SqlMetricsListener;
+import com.example.spring_data_jpa_tutorial.metrics.SqlRecordingTaskDecorator;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// Per-query and per-request SQL instrumentation, published through Actuator (/actuator/prometheus)
+@Configuration
+public class SqlMetricsConfig {
+
+    // Order of the post-processor that wraps the application DataSource; other wrappers order themselves against it
+    public static final int DATA_SOURCE_PROXY_ORDER = 0;
+
+    @Bean
+    public SqlMetricsListener sqlMetricsListener(@Value("${app.sql.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+        return new SqlMetricsListener(slowQueryThreshold);
+    }
+
+    @Bean
+    public SqlMetricsFilter sqlMetricsFilter(MeterRegistry meterRegistry,
+                                             @Value("${app.sql.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                                             @Value("${app.sql.count-rows:false}") boolean countRows) {
+        return new SqlMetricsFilter(meterRegistry, nPlusOneThreshold, countRows);
+    }
+
+    // Boot applies it to its applicationTaskExecutor (Spring MVC async requests); AsyncConfig to its executors
+    @Bean
+    public TaskDecorator sqlRecordingTaskDecorator() {
+        return new SqlRecordingTaskDecorator();
+    }
+
+    // Routes every statement of the application DataSource through SqlMetricsListener.
+    // Row counting proxies every result set as well, which costs a reflective call per ResultSet method.
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourcePostProcessor(ObjectProvider<SqlMetricsListener> listener,
+                                                                      Environment environment) {
+        boolean countRows = environment.getProperty("app.sql.count-rows", Boolean.class, false);
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public int getOrder() {
+                return DATA_SOURCE_PROXY_ORDER;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener.getObject());
+                    if (countRows) {
+                        builder.proxyResultSet().methodListener(new ResultSetRowListener());
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Adds RepositoryMetricsInterceptor in front of every Spring Data repository
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(0,
+                                    new RepositoryMetricsInterceptor(meterRegistry.getObject(),
+                                            repositoryInformation.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+    }
+}
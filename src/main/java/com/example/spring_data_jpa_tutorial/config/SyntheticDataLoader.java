@@ -0,0 +1,30 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.generator.SyntheticCatalogGenerator;
+import com.example.spring_data_jpa_tutorial.service.ProductSearchService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Seeds a large synthetic catalog instead of DataLoader's sample rows:
+// mvn spring-boot:run -Dspring-boot.run.profiles=generate (sizes in application-generate.properties)
+@Configuration
+@Profile("generate")
+public class SyntheticDataLoader {
+
+    @Bean
+    CommandLineRunner generateCatalog(SyntheticCatalogGenerator generator, ProductSearchService productSearchService,
+                                      @Value("${app.generator.reindex-search:true}") boolean reindexSearch) {
+        return args -> {
+            generator.generate();
+            // Category statistics and the price index are loaded once the application is ready, after this runner.
+            // The full-text index only follows JPA writes, so it is rebuilt from the generated rows; waited for,
+            // so the application only becomes ready with a complete index and a failed rebuild stops it.
+            if (reindexSearch) {
+                productSearchService.rebuildIndex().join();
+            }
+        };
+    }
+}
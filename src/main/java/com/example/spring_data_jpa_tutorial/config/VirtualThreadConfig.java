@@ -0,0 +1,76 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import com.example.spring_data_jpa_tutorial.datasource.BulkheadDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+// Virtual thread mode (spring.threads.virtual.enabled=true): Spring Boot already runs Tomcat requests and the
+// application task executor on virtual threads; this adds the JDBC bulkhead in front of the connection pool.
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // Wraps the application DataSource before SqlMetricsConfig's proxy does, so the bulkhead sits between
+    // that proxy and the pools
+    @Bean
+    public static BeanPostProcessor jdbcBulkheadPostProcessor(Environment environment) {
+        return new OrderedBeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    Duration timeout = environment.getProperty("app.datasource.bulkhead.timeout", Duration.class, Duration.ofSeconds(30));
+                    return new BulkheadDataSource(dataSource, permits(environment), timeout);
+                }
+                return bean;
+            }
+
+            @Override
+            public int getOrder() {
+                return SqlMetricsConfig.DATA_SOURCE_PROXY_ORDER - 1;
+            }
+        };
+    }
+
+    // One permit per pooled connection, so waiting happens in the fair semaphore, not inside a pool.
+    // With read/write routing (DataSourceRoutingConfig) the primary and every replica pool have maximum-pool-size
+    // connections each.
+    static int permits(Environment environment) {
+        int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        if (!environment.getProperty("app.datasource.routing.enabled", Boolean.class, false)) {
+            return poolSize;
+        }
+        String[] replicaUrls = environment.getProperty("app.datasource.replica-urls", String[].class, new String[0]);
+        return poolSize * (1 + replicaUrls.length);
+    }
+
+    @Bean
+    public MeterBinder jdbcBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead;
+            try {
+                bulkhead = dataSource.unwrap(BulkheadDataSource.class);
+            } catch (SQLException e) {
+                return;
+            }
+            Gauge.builder("jdbc.bulkhead.waiting", bulkhead, BulkheadDataSource::getWaitingThreads)
+                    .description("Threads waiting for a database connection permit")
+                    .register(registry);
+            Gauge.builder("jdbc.bulkhead.available", bulkhead, BulkheadDataSource::getAvailablePermits)
+                    .description("Database connection permits currently available")
+                    .register(registry);
+        };
+    }
+
+    private interface OrderedBeanPostProcessor extends BeanPostProcessor, Ordered {
+    }
+}
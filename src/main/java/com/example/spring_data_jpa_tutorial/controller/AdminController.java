@@ -0,0 +1,118 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.config.CacheConfig;
+import com.example.spring_data_jpa_tutorial.dto.SearchIndexStatusDTO;
+import com.example.spring_data_jpa_tutorial.index.PriceRangeIndex;
+import com.example.spring_data_jpa_tutorial.service.CategoryStatsService;
+import com.example.spring_data_jpa_tutorial.service.ProductSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administration", description = "Operational endpoints for caches and derived data")
+public class AdminController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private ObjectProvider<PriceRangeIndex> priceRangeIndex;
+
+    @Operation(summary = "Get second-level cache statistics",
+               description = "Returns hit, miss and put counts of the second-level and query caches, per region")
+    @GetMapping("/cache/stats")
+    public Map<String, Object> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return result;
+        }
+
+        result.put("secondLevelCache", Map.of(
+                "hits", statistics.getSecondLevelCacheHitCount(),
+                "misses", statistics.getSecondLevelCacheMissCount(),
+                "puts", statistics.getSecondLevelCachePutCount()));
+        result.put("queryCache", Map.of(
+                "hits", statistics.getQueryCacheHitCount(),
+                "misses", statistics.getQueryCacheMissCount(),
+                "puts", statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String region : List.of(CacheConfig.CATEGORY_REGION, CacheConfig.PRODUCT_REGION,
+                CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION, CacheConfig.DEFAULT_QUERY_RESULTS_REGION)) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, Map.of(
+                        "hits", regionStatistics.getHitCount(),
+                        "misses", regionStatistics.getMissCount(),
+                        "puts", regionStatistics.getPutCount(),
+                        "size", regionStatistics.getElementCountInMemory()));
+            }
+        }
+        result.put("regions", regions);
+        return result;
+    }
+
+    @Operation(summary = "Rebuild the product search index",
+               description = "Starts rebuilding the full-text index from the database and returns immediately; " +
+                             "GET /api/admin/search/reindex reports the outcome. 409 while a rebuild is running.")
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Object> rebuildSearchIndex() {
+        try {
+            productSearchService.rebuildIndex();
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(productSearchService.getIndexStatus(), HttpStatus.ACCEPTED);
+    }
+
+    @Operation(summary = "Get the state of the search index rebuild",
+               description = "Whether a rebuild is running, and when the last one started, finished and why it failed")
+    @GetMapping("/search/reindex")
+    public SearchIndexStatusDTO getSearchIndexStatus() {
+        return productSearchService.getIndexStatus();
+    }
+
+    @Operation(summary = "Rebuild the category statistics",
+               description = "Recomputes the per-category product count and prices from the database")
+    @PostMapping("/category-stats/rebuild")
+    public Map<String, Integer> rebuildCategoryStats() {
+        return Map.of("categories", categoryStatsService.rebuild());
+    }
+
+    @Operation(summary = "Rebuild the in-memory price index",
+               description = "Reloads the price index from the database; price range queries use SQL until it is done")
+    @PostMapping("/price-index/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildPriceIndex() {
+        PriceRangeIndex index = priceRangeIndex.getIfAvailable();
+        if (index == null) {
+            return new ResponseEntity<>(Map.of("error", "Price index is disabled (app.price-index.enabled=false)"), HttpStatus.NOT_FOUND);
+        }
+        index.rebuild();
+        return ResponseEntity.ok(Map.of("status", "Price index rebuilt"));
+    }
+}
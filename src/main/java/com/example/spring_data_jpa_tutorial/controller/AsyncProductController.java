@@ -0,0 +1,175 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.config.AsyncConfig;
+import com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.example.spring_data_jpa_tutorial.service.PriceRangeQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Asynchronous variants of the product read endpoints. The servlet thread is released as soon as the query
+// is handed to a bounded executor; a full executor answers 503, a query slower than app.async.query-timeout 504.
+// Entities are loaded in their own read-only transaction on the executor thread (no open-in-view session),
+// so only endpoints whose results are fully fetched by the query are offered here. The transaction times out
+// with the request: its statements are cancelled, which frees the executor thread as well.
+@RestController
+@RequestMapping("/api/async")
+@Tag(name = "Async Product API", description = "Non-blocking product reads and server-sent event streams")
+public class AsyncProductController {
+
+    private static final int STREAM_PAGE_SIZE = 200;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PriceRangeQueryService priceRangeQueryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier(AsyncConfig.PRODUCT_QUERY_EXECUTOR)
+    private ThreadPoolTaskExecutor queryExecutor;
+
+    @Autowired
+    @Qualifier(AsyncConfig.PRODUCT_STREAM_EXECUTOR)
+    private ThreadPoolTaskExecutor streamExecutor;
+
+    @Value("${app.async.query-timeout:5s}")
+    private Duration queryTimeout;
+
+    @Value("${app.async.stream-timeout:10m}")
+    private Duration streamTimeout;
+
+    @Operation(summary = "Get product by ID (async)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Product found"),
+        @ApiResponse(responseCode = "404", description = "Product not found"),
+        @ApiResponse(responseCode = "503", description = "Query executor is saturated, retry later"),
+        @ApiResponse(responseCode = "504", description = "Query did not finish in time")
+    })
+    @GetMapping("/products/{id}")
+    public CompletableFuture<ResponseEntity<Product>> getProductById(@PathVariable Long id) {
+        return query(() -> productRepository.findByIdWithCategory(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+    }
+
+    @Operation(summary = "Get product summaries of a category (async)")
+    @GetMapping("/products/by-category-name")
+    public CompletableFuture<List<ProductSummaryDTO>> getProductsByCategoryName(@RequestParam String categoryName) {
+        return query(() -> productRepository.findSummariesByCategoryName(categoryName));
+    }
+
+    @Operation(summary = "Get products in a price range of a category (async)")
+    @GetMapping("/products/price-range-and-category")
+    public CompletableFuture<List<Product>> findProductsInPriceRangeAndCategory(
+            @RequestParam Double minPrice,
+            @RequestParam Double maxPrice,
+            @RequestParam Long categoryId) {
+        return query(() -> priceRangeQueryService.findInPriceRangeAndCategory(minPrice, maxPrice, categoryId));
+    }
+
+    @Operation(summary = "Stream product summaries as server-sent events",
+               description = "Sends one 'product' event per product, ordered by ID, then a 'complete' event with the count. " +
+                             "The first rows are sent as soon as the first page is read. Reconnecting clients resume " +
+                             "after the Last-Event-ID they received.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream"),
+        @ApiResponse(responseCode = "503", description = "Too many open streams, retry later")
+    })
+    @GetMapping(value = "/products/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProducts(
+            @Parameter(description = "Only stream products of this category") @RequestParam(required = false) String categoryName,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        streamExecutor.execute(() -> sendPages(emitter, open, categoryName, lastEventId != null ? lastEventId : 0L));
+        return emitter;
+    }
+
+    // Reads keyset pages, so a connection is only held while one page is read, and reads the next page only
+    // once the previous one is written. send() blocks while the client is not reading (the socket buffer is full),
+    // which stops the reading as well: memory per stream is bounded by one page.
+    private void sendPages(SseEmitter emitter, AtomicBoolean open, String categoryName, long afterId) {
+        try {
+            long sent = 0;
+            while (open.get()) {
+                List<ProductSummaryDTO> page = categoryName == null
+                        ? productRepository.findSummariesAfterId(afterId, Limit.of(STREAM_PAGE_SIZE))
+                        : productRepository.findSummariesByCategoryNameAfterId(categoryName, afterId, Limit.of(STREAM_PAGE_SIZE));
+                for (ProductSummaryDTO product : page) {
+                    emitter.send(SseEmitter.event()
+                            .name("product")
+                            .id(String.valueOf(product.getId()))
+                            .data(product, MediaType.APPLICATION_JSON));
+                }
+                sent += page.size();
+                if (page.size() < STREAM_PAGE_SIZE) {
+                    emitter.send(SseEmitter.event().name("complete").data(Map.of("count", sent), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                    return;
+                }
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } catch (IOException | RuntimeException e) {
+            emitter.completeWithError(e); // client disconnected or query failed
+        }
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> call) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setTimeout((int) Math.ceil(queryTimeout.toMillis() / 1000.0)); // whole seconds
+        return CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> call.get()), queryExecutor)
+                .orTimeout(queryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Object> handleRejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "Too many concurrent requests, retry later"));
+    }
+
+    // The client gets its answer now; the statement is cancelled by the transaction timeout
+    @ExceptionHandler({TimeoutException.class, QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<Object> handleTimeout(Exception e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(Map.of("error", "Query did not finish within " + queryTimeout.toMillis() + " ms"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.dto.ChangeFeedDTO;
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import com.example.spring_data_jpa_tutorial.repository.OutboxEventRepository;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Change Feed", description = "Incremental sync of product and category changes")
+public class ChangeFeedController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    // Serves feed positions, which the relay assigns after commit: a consumer never skips a change
+    // that commits after it read a page. Changes appear once relayed (app.outbox.relay.interval).
+    // Positions have no gaps and retention removes the oldest ones first, so a page that does not start right
+    // after since means the changes in between are gone.
+    @Operation(summary = "Get changes since a feed position",
+               description = "Returns product and category changes after the given feed position, in commit order. " +
+                             "Start with since=0, then pass nextSince of each response. Changes are kept for " +
+                             "app.outbox.retention. Bulk changes come as one event per category (PRODUCTS_DELETED, " +
+                             "PRODUCT_PRICES_ADJUSTED). 410 when changes after since are no longer kept: reload " +
+                             "the catalog, then continue with since=latestPosition from the 410 response.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes returned",
+                    content = @Content(schema = @Schema(implementation = ChangeFeedDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid feed position or limit"),
+        @ApiResponse(responseCode = "410", description = "Changes after the feed position were deleted (retention)")
+    })
+    @GetMapping
+    public ResponseEntity<Object> getChanges(
+            @Parameter(description = "Last feed position already processed") @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "100") int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_LIMIT) {
+            return new ResponseEntity<>(
+                Map.of("error", "since must not be negative and limit must be between 1 and " + MAX_LIMIT),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        List<OutboxEvent> changes = outboxEventRepository.findChangesSince(since, Limit.of(limit));
+        if (!changes.isEmpty() && changes.get(0).getFeedPosition() > since + 1) {
+            // Read before the client reloads the catalog, so changes during its reload are served again
+            return new ResponseEntity<>(
+                Map.of("error", "Changes after position " + since + " are no longer kept, reload the catalog",
+                       "latestPosition", outboxEventRepository.findMaxFeedPosition()),
+                HttpStatus.GONE
+            );
+        }
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getFeedPosition();
+        return ResponseEntity.ok(new ChangeFeedDTO(changes, nextSince));
+    }
+}
@@ -1,10 +1,27 @@
 package com.example.spring_data_jpa_tutorial.controller;
 
+import com.example.spring_data_jpa_tutorial.dto.BulkImportResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.BulkUpdateResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.CategoryStatsDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductDetailsDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductLookupResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductPageCursor;
+import com.example.spring_data_jpa_tutorial.dto.ProductPageDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchResultDTO;
 import com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO;
+import com.example.spring_data_jpa_tutorial.dto.VersionStampDTO;
 import com.example.spring_data_jpa_tutorial.model.Category;
 import com.example.spring_data_jpa_tutorial.model.Product;
 import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
 import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.example.spring_data_jpa_tutorial.service.CatalogWriteService;
+import com.example.spring_data_jpa_tutorial.service.CategoryStatsService;
+import com.example.spring_data_jpa_tutorial.service.ProductBulkService;
+import com.example.spring_data_jpa_tutorial.service.PriceRangeQueryService;
+import com.example.spring_data_jpa_tutorial.service.ProductExportService;
+import com.example.spring_data_jpa_tutorial.service.ProductImportService;
+import com.example.spring_data_jpa_tutorial.service.ProductLookupService;
+import com.example.spring_data_jpa_tutorial.service.ProductSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,9 +30,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -27,12 +49,40 @@ import java.util.stream.Collectors;
 @Tag(name = "Product Management", description = "APIs for managing products and categories")
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_IMPORT_SIZE = 10_000;
+    private static final int MAX_LOOKUP_SIZE = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CategoryStatsService categoryStatsService;
+
+    @Autowired
+    private PriceRangeQueryService priceRangeQueryService;
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @Autowired
+    private CatalogWriteService catalogWriteService;
+
+    @Autowired
+    private ProductLookupService productLookupService;
+
     // --- Category Endpoints ---
 
     @Operation(summary = "Create a new category", description = "Creates a new category with the provided information")
@@ -43,26 +93,73 @@ public class ProductController {
     })
     @PostMapping("/categories")
     public ResponseEntity<Category> createCategory(@RequestBody Category category) {
-        Category savedCategory = categoryRepository.save(category);
+        Category savedCategory = catalogWriteService.createCategory(category);
         return new ResponseEntity<>(savedCategory, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Get all categories", description = "Returns a list of all categories")
+    @Operation(summary = "Get all categories",
+               description = "Returns a list of all categories. Products are only included when includeProducts=true")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Categories returned with an ETag"),
+        @ApiResponse(responseCode = "304", description = "Categories unchanged since the ETag in If-None-Match")
+    })
     @GetMapping("/categories")
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public ResponseEntity<List<Category>> getAllCategories(
+            @Parameter(description = "Also load the products of every category") @RequestParam(defaultValue = "false") boolean includeProducts,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            VersionStampDTO categories = categoryRepository.findVersionStampOfAll();
+            String eTag = includeProducts
+                    ? categories.toETag("categories", productRepository.findVersionStampOfAll(), "products")
+                    : categories.toETag("categories");
+            if (eTagMatches(ifNoneMatch, eTag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
+        List<Category> categories;
+        String eTag;
+        if (includeProducts) {
+            categories = categoryRepository.findAllWithProducts();
+            List<Product> products = categories.stream().flatMap(c -> c.getProducts().stream()).collect(Collectors.toList());
+            eTag = VersionStampDTO.ofCategories(categories).toETag("categories", VersionStampDTO.ofProducts(products), "products");
+        } else {
+            categories = categoryRepository.findAllSummaries();
+            eTag = VersionStampDTO.ofCategories(categories).toETag("categories");
+        }
+        return ResponseEntity.ok().eTag(eTag).body(categories);
+    }
+
+    @Operation(summary = "Get category statistics",
+               description = "Returns product count and min/avg/max price of every category, from an in-memory aggregate")
+    @GetMapping("/categories/stats")
+    public List<CategoryStatsDTO> getCategoryStats() {
+        return categoryStatsService.getStats();
     }
 
     @Operation(summary = "Get category by ID", description = "Returns a category based on its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Category found"),
+        @ApiResponse(responseCode = "304", description = "Category unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Category not found")
     })
     @GetMapping("/categories/{id}")
     public ResponseEntity<Category> getCategoryById(
-            @Parameter(description = "ID of the category to retrieve") @PathVariable Long id) {
-        Optional<Category> category = categoryRepository.findById(id);
-        return category.map(ResponseEntity::ok)
+            @Parameter(description = "ID of the category to retrieve") @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<VersionStampDTO> stamp = categoryRepository.findVersionStampWithProductsById(id);
+            if (stamp.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            String eTag = stamp.get().toETag("category");
+            if (eTagMatches(ifNoneMatch, eTag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
+        Optional<Category> category = categoryRepository.findWithProductsById(id);
+        return category.map(c -> ResponseEntity.ok().eTag(VersionStampDTO.ofCategoryWithProducts(c).toETag("category")).body(c))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -102,7 +199,7 @@ public class ProductController {
             
             product.setCategory(existingCategory.get());
             
-            Product savedProduct = productRepository.save(product);
+            Product savedProduct = catalogWriteService.createProduct(product);
             return new ResponseEntity<>(savedProduct, HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(
@@ -112,52 +209,204 @@ public class ProductController {
         }
     }
 
-    @Operation(summary = "Get all products", description = "Returns a list of all products")
+    @Operation(summary = "Import products in bulk",
+               description = "Creates many products in one request. Products are validated and inserted in chunks; " +
+                             "invalid or duplicate products are skipped and reported by their index in the request. " +
+                             "Each chunk commits on its own: if one fails, the chunks before it stay imported.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import finished",
+                    content = @Content(schema = @Schema(implementation = BulkImportResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized request"),
+        @ApiResponse(responseCode = "500", description = "A chunk failed; the result reports it and what was committed before it",
+                    content = @Content(schema = @Schema(implementation = BulkImportResultDTO.class)))
+    })
+    @PostMapping("/products/bulk")
+    public ResponseEntity<Object> importProducts(@RequestBody List<Product> products) {
+        if (products.isEmpty() || products.size() > MAX_IMPORT_SIZE) {
+            return new ResponseEntity<>(
+                Map.of("error", "Between 1 and " + MAX_IMPORT_SIZE + " products can be imported per request"),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        try {
+            BulkImportResultDTO result = productImportService.importProducts(products);
+            if (result.getFailedChunk() != null) {
+                return new ResponseEntity<>(result, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return new ResponseEntity<>(
+                Map.of("error", "Failed to import products: " + e.getMessage()),
+                HttpStatus.INTERNAL_SERVER_ERROR
+            );
+        }
+    }
+
+    @Operation(summary = "Get products page by page",
+               description = "Returns one page of products using keyset (cursor) pagination. " +
+                             "Pass the nextCursor of a page to fetch the following one; it is null on the last page.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Page returned",
+                    content = @Content(schema = @Schema(implementation = ProductPageDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor, size or sort key")
+    })
     @GetMapping("/products")
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public ResponseEntity<Object> getAllProducts(
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE) @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Sort key: id or price") @RequestParam(defaultValue = ProductPageCursor.SORT_BY_ID) String sortBy) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(
+                Map.of("error", "Page size must be between 1 and " + MAX_PAGE_SIZE),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        if (!ProductPageCursor.SORT_BY_ID.equals(sortBy) && !ProductPageCursor.SORT_BY_PRICE.equals(sortBy)) {
+            return new ResponseEntity<>(
+                Map.of("error", "Unsupported sort key '" + sortBy + "'"),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        ProductPageCursor after = null;
+        if (cursor != null) {
+            try {
+                after = ProductPageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+            }
+            if (!after.getSortBy().equals(sortBy)) {
+                return new ResponseEntity<>(
+                    Map.of("error", "Cursor was issued for sort key '" + after.getSortBy() + "'"),
+                    HttpStatus.BAD_REQUEST
+                );
+            }
+        }
+
+        // Fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(size + 1);
+        List<Product> rows;
+        if (ProductPageCursor.SORT_BY_PRICE.equals(sortBy)) {
+            rows = after == null
+                    ? productRepository.findAllByOrderByPriceAscIdAsc(limit)
+                    : productRepository.findNextPageByPrice(after.getPrice(), after.getId(), limit);
+        } else {
+            rows = after == null
+                    ? productRepository.findAllByOrderByIdAsc(limit)
+                    : productRepository.findByIdGreaterThanOrderByIdAsc(after.getId(), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Product last = rows.get(size - 1);
+            nextCursor = new ProductPageCursor(sortBy, last.getId(),
+                    ProductPageCursor.SORT_BY_PRICE.equals(sortBy) ? last.getPrice() : null).encode();
+        }
+        return ResponseEntity.ok(new ProductPageDTO(rows, nextCursor));
+    }
+
+    @Operation(summary = "Export products as NDJSON",
+               description = "Streams all products, or the products of one category, as newline-delimited JSON. " +
+                             "Rows are written as they are read, so memory use does not depend on the catalog size.")
+    @GetMapping(value = "/products/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Only export products of this category") @RequestParam(required = false) String categoryName) {
+        StreamingResponseBody body = out -> productExportService.exportAsNdjson(categoryName, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Operation(summary = "Get product by ID", description = "Returns a product based on its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product found"),
+        @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/products/{id}")
     public ResponseEntity<Product> getProductById(
-            @Parameter(description = "ID of the product to retrieve") @PathVariable Long id) {
+            @Parameter(description = "ID of the product to retrieve") @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Optional<VersionStampDTO> stamp = productRepository.findVersionStampById(id);
+            if (stamp.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            String eTag = stamp.get().toETag("product");
+            if (eTagMatches(ifNoneMatch, eTag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+        }
+
         Optional<Product> product = productRepository.findByIdWithCategory(id);
-        return product.map(ResponseEntity::ok)
+        return product.map(p -> ResponseEntity.ok().eTag(VersionStampDTO.ofProduct(p).toETag("product")).body(p))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @Operation(summary = "Get products by a list of IDs",
+               description = "Resolves many IDs with one query per chunk of IDs instead of one request and query per ID. " +
+                             "Products come back in the requested order, IDs without a product are listed in missingIds.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lookup finished",
+                    content = @Content(schema = @Schema(implementation = ProductLookupResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized ID list, or a null ID")
+    })
+    @PostMapping("/products/lookup")
+    public ResponseEntity<Object> lookupProducts(@RequestBody List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_LOOKUP_SIZE || ids.contains(null)) {
+            return new ResponseEntity<>(
+                Map.of("error", "Between 1 and " + MAX_LOOKUP_SIZE + " IDs, none of them null, can be looked up per request"),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return ResponseEntity.ok(productLookupService.lookup(ids));
+    }
+
     // --- New Endpoints for Multi-Table Joins & Custom Queries ---
 
     // Find products by category name (Derived Query with eager loading)
+    // summary=true returns ProductSummaryDTO rows built by the query instead of entities
     @GetMapping("/products/by-category-name")
-    public List<Product> getProductsByCategoryName(@RequestParam String categoryName) {
-        return productRepository.findByCategoryNameWithCategory(categoryName);
+    public List<?> getProductsByCategoryName(
+            @RequestParam String categoryName,
+            @Parameter(description = "Return id, name, price and category name only") @RequestParam(defaultValue = "false") boolean summary) {
+        return summary
+                ? productRepository.findSummariesByCategoryName(categoryName)
+                : productRepository.findByCategoryNameWithCategory(categoryName);
     }
 
     // Find products by category ID (Derived Query)
     @GetMapping("/products/by-category-id/{categoryId}")
-    public List<Product> getProductsByCategoryId(@PathVariable Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+    public List<?> getProductsByCategoryId(
+            @PathVariable Long categoryId,
+            @Parameter(description = "Return id, name, price and category name only") @RequestParam(defaultValue = "false") boolean summary) {
+        return summary
+                ? productRepository.findSummariesByCategoryId(categoryId)
+                : productRepository.findByCategoryId(categoryId);
     }
 
     // Get products with price less than X and specific category (JPQL Custom Query)
     @GetMapping("/products/filter-by-price-and-category")
-    public List<Product> findProductsByPriceAndCategory(@RequestParam Double price, @RequestParam String categoryName) {
-        return productRepository.findProductsWithPriceLessThanAndCategory(price, categoryName);
+    public List<?> findProductsByPriceAndCategory(
+            @RequestParam Double price,
+            @RequestParam String categoryName,
+            @Parameter(description = "Return id, name, price and category name only") @RequestParam(defaultValue = "false") boolean summary) {
+        return summary
+                ? productRepository.findSummariesWithPriceLessThanAndCategory(price, categoryName)
+                : productRepository.findProductsWithPriceLessThanAndCategory(price, categoryName);
     }
 
     // Get product name and category name for all products (Projection JPQL Custom Query)
     @GetMapping("/products/details-by-category-name")
-    public List<Object[]> findProductDetailsByCategory(@RequestParam String categoryName) {
+    public List<ProductDetailsDTO> findProductDetailsByCategory(@RequestParam String categoryName) {
         return productRepository.findProductDetailsByCategoryName(categoryName);
     }
 
     // Get products by name part and category description part (JPQL Custom Query)
+    // LIKE '%...%' cannot use an index; kept for existing clients, new code should use /products/full-text-search
+    @Operation(summary = "Search products by substring", deprecated = true,
+               description = "Scans the whole table. Use /products/full-text-search instead")
     @GetMapping("/products/search")
     public List<Product> searchProducts(
             @RequestParam String productNamePart,
@@ -165,41 +414,67 @@ public class ProductController {
         return productRepository.findProductsByNamePartAndCategoryDescription(productNamePart, categoryDescPart);
     }
 
+    @Operation(summary = "Full-text product search",
+               description = "Ranked, paginated search over product name, product description and category description, " +
+                             "answered from a Lucene index instead of scanning the products table")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search results, best match first",
+                    content = @Content(schema = @Schema(implementation = ProductSearchResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid page or size, or a page beyond the result window")
+    })
+    @GetMapping("/products/full-text-search")
+    public ResponseEntity<Object> fullTextSearch(
+            @Parameter(description = "Words to search for; all of them must match") @RequestParam String query,
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, 1 to " + MAX_PAGE_SIZE) @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>(
+                Map.of("error", "Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        try {
+            return ResponseEntity.ok(productSearchService.search(query, page, size));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Find products in price range and specific category (JPQL with Named Params)
     @GetMapping("/products/price-range-and-category")
-    public List<Product> findProductsInPriceRangeAndCategory(
+    public List<?> findProductsInPriceRangeAndCategory(
             @RequestParam Double minPrice,
             @RequestParam Double maxPrice,
-            @RequestParam Long categoryId) {
-        return productRepository.findProductsInPriceRangeAndCategory(minPrice, maxPrice, categoryId);
+            @RequestParam Long categoryId,
+            @Parameter(description = "Return id, name, price and category name only") @RequestParam(defaultValue = "false") boolean summary) {
+        return summary
+                ? productRepository.findSummariesInPriceRangeAndCategory(minPrice, maxPrice, categoryId)
+                : priceRangeQueryService.findInPriceRangeAndCategory(minPrice, maxPrice, categoryId);
     }
 
     // Find products by category name (Native Query)
     @GetMapping("/products/by-category-name-native")
     public List<ProductSummaryDTO> getProductsByCategoryNameNative(@RequestParam String categoryName) {
-        List<Object[]> results = productRepository.findProductSummaryByCategoryName(categoryName);
-        return results.stream()
-                .map(result -> new ProductSummaryDTO(
-                        ((Number) result[0]).longValue(),
-                        (String) result[1],
-                        ((Number) result[2]).doubleValue(),
-                        (String) result[3]))
+        return productRepository.findProductSummaryByCategoryName(categoryName).stream()
+                .map(row -> new ProductSummaryDTO(row.getId(), row.getName(), row.getPrice(), row.getCategoryName()))
                 .collect(Collectors.toList());
     }
 
     // ... (Keep existing updateProduct and deleteProduct if desired) ...
     // UPDATE an existing product
+    // If-Match makes the update conditional on the ETag the client last saw (412 otherwise);
+    // a concurrent update between this read and the write is caught by the @Version check (409)
     @PutMapping("/products/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
-        Optional<Product> optionalProduct = productRepository.findById(id);
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Product> optionalProduct = productRepository.findByIdWithCategory(id);
 
         if (optionalProduct.isPresent()) {
             Product existingProduct = optionalProduct.get();
-            existingProduct.setName(productDetails.getName());
-            existingProduct.setPrice(productDetails.getPrice());
-            existingProduct.setDescription(productDetails.getDescription());
-
-            // Handle category update if provided
+            if (ifMatch != null && !eTagMatches(ifMatch, VersionStampDTO.ofProduct(existingProduct).toETag("product"), false)) {
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+            // Handle category update if provided; checked before the managed entity is changed
             if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
                 Optional<Category> newCategory = categoryRepository.findById(productDetails.getCategory().getId());
                 if (newCategory.isPresent()) {
@@ -208,22 +483,95 @@ public class ProductController {
                     return new ResponseEntity<>(HttpStatus.BAD_REQUEST); // New category does not exist
                 }
             }
+            existingProduct.setName(productDetails.getName());
+            existingProduct.setPrice(productDetails.getPrice());
+            existingProduct.setDescription(productDetails.getDescription());
 
-            Product updatedProduct = productRepository.save(existingProduct);
-            return ResponseEntity.ok(updatedProduct);
+            Product updatedProduct = catalogWriteService.updateProduct(existingProduct);
+            return ResponseEntity.ok().eTag(VersionStampDTO.ofProduct(updatedProduct).toETag("product")).body(updatedProduct);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
-    // DELETE a product
+    // DELETE a product (one DELETE statement, no entity load; the bulk service records the outbox event)
     @DeleteMapping("/products/{id}")
     public ResponseEntity<HttpStatus> deleteProduct(@PathVariable Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
+        if (productBulkService.deleteProducts(List.of(id)) > 0) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    // --- Bulk (set-based) operations ---
+
+    @Operation(summary = "Adjust the prices of a category",
+               description = "Changes every price of the category by the given percentage with one UPDATE statement")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Number of updated products",
+                    content = @Content(schema = @Schema(implementation = BulkUpdateResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Percentage out of range")
+    })
+    @PostMapping("/categories/{id}/price-adjustment")
+    public ResponseEntity<Object> adjustCategoryPrices(
+            @Parameter(description = "ID of the category") @PathVariable Long id,
+            @Parameter(description = "Percentage to add, e.g. 10 or -15; greater than -100") @RequestParam double percent) {
+        if (percent <= -100 || percent > 1000) {
+            return new ResponseEntity<>(
+                Map.of("error", "Percentage must be greater than -100 and at most 1000"),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return ResponseEntity.ok(new BulkUpdateResultDTO(productBulkService.adjustCategoryPrices(id, percent)));
+    }
+
+    @Operation(summary = "Delete products by ID",
+               description = "Deletes the given products with one DELETE statement per 512 IDs; unknown IDs are ignored")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Number of deleted products",
+                    content = @Content(schema = @Schema(implementation = BulkUpdateResultDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Empty or oversized ID list")
+    })
+    @DeleteMapping("/products")
+    public ResponseEntity<Object> deleteProducts(
+            @Parameter(description = "IDs of the products to delete") @RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_IMPORT_SIZE) {
+            return new ResponseEntity<>(
+                Map.of("error", "Between 1 and " + MAX_IMPORT_SIZE + " IDs can be deleted per request"),
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return ResponseEntity.ok(new BulkUpdateResultDTO(productBulkService.deleteProducts(ids)));
+    }
+
+    @Operation(summary = "Delete all products of a category",
+               description = "Deletes the products with one DELETE statement per 512 products; the category itself is kept")
+    @DeleteMapping("/categories/{id}/products")
+    public BulkUpdateResultDTO deleteProductsOfCategory(
+            @Parameter(description = "ID of the category") @PathVariable Long id) {
+        return new BulkUpdateResultDTO(productBulkService.deleteProductsOfCategory(id));
+    }
+
+    // Another transaction updated the row after it was read
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "The resource was modified concurrently, reload it and retry"));
+    }
+
+    // Compares an If-None-Match / If-Match header with the current ETag. "*" matches any existing representation;
+    // weak tags only count for If-None-Match (RFC 9110 weak vs. strong comparison).
+    private static boolean eTagMatches(String header, String eTag, boolean weakComparison) {
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (weakComparison && tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
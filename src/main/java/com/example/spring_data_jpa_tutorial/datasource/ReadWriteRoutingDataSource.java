@@ -0,0 +1,96 @@
+package com.example.spring_data_jpa_tutorial.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sends connections of read-only transactions to the replica pools (round-robin over the healthy ones)
+// and everything else to the primary. Must sit behind a LazyConnectionDataSourceProxy: the transaction's
+// read-only flag is only known after the transaction manager asked for a connection.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, LongAdder> routedConnections = new ConcurrentHashMap<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.replicaKeys = List.copyOf(replicas.keySet());
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        targets.keySet().forEach(key -> routedConnections.put((String) key, new LongAdder()));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? nextHealthyReplica() : PRIMARY;
+        routedConnections.get(key).increment();
+        return key;
+    }
+
+    private String nextHealthyReplica() {
+        for (int attempt = 0; attempt < replicaKeys.size(); attempt++) {
+            String key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+            if (!unhealthyReplicas.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY; // no replica available: reads fall back to the primary
+    }
+
+    // Probes every replica; failing ones leave the rotation until a later check succeeds
+    public void checkReplicas() {
+        replicas.forEach((key, replica) -> {
+            try (Connection connection = replica.getConnection()) {
+                if (connection.isValid(2)) {
+                    unhealthyReplicas.remove(key);
+                } else {
+                    unhealthyReplicas.add(key);
+                }
+            } catch (SQLException e) {
+                unhealthyReplicas.add(key);
+            }
+        });
+    }
+
+    public boolean isHealthy(String replicaKey) {
+        return !unhealthyReplicas.contains(replicaKey);
+    }
+
+    public List<String> getReplicaKeys() {
+        return replicaKeys;
+    }
+
+    // Connections handed out per target since startup
+    public long getRoutedConnections(String key) {
+        LongAdder count = routedConnections.get(key);
+        return count != null ? count.sum() : 0;
+    }
+
+    // Closes the replica pools, which are owned by this data source
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
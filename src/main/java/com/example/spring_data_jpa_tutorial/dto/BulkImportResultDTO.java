@@ -0,0 +1,38 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkImportResultDTO {
+    private int imported;
+    private List<RejectedProduct> rejected;
+    private FailedChunk failedChunk; // null when every chunk was committed
+
+    public BulkImportResultDTO() {
+        this(0, new ArrayList<>(), null);
+    }
+
+    // A product that was skipped, identified by its position in the request body
+    @Data
+    @AllArgsConstructor
+    public static class RejectedProduct {
+        private int index;
+        private String name;
+        private String reason;
+    }
+
+    // The chunk whose transaction failed. Products before it are committed (imported and rejected count them),
+    // the chunk and everything after it is not: a retry resends the request from firstIndex.
+    @Data
+    @AllArgsConstructor
+    public static class FailedChunk {
+        private int firstIndex;
+        private int lastIndex;
+        private String error;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkUpdateResultDTO {
+    private int affectedRows;
+}
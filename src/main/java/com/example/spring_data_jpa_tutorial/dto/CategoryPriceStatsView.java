@@ -0,0 +1,11 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+// Interface projection of the per-category price aggregate; price columns are null for an empty category
+public interface CategoryPriceStatsView {
+    Long getCategoryId();
+    String getCategoryName();
+    Long getProductCount();
+    Double getPriceSum();
+    Double getMinPrice();
+    Double getMaxPrice();
+}
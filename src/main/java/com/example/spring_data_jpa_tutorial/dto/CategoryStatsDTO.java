@@ -0,0 +1,15 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CategoryStatsDTO {
+    private Long categoryId;
+    private String categoryName;
+    private long productCount;
+    private Double minPrice; // null for an empty category
+    private Double avgPrice;
+    private Double maxPrice;
+}
@@ -0,0 +1,19 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Page of the change feed")
+public class ChangeFeedDTO {
+    @Schema(description = "Changes in feed position order")
+    private List<OutboxEvent> changes;
+
+    @Schema(description = "Pass as 'since' to read the following changes; unchanged when there are none yet", example = "42")
+    private Long nextSince;
+}
@@ -0,0 +1,14 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import com.example.spring_data_jpa_tutorial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductLookupResultDTO {
+    private List<Product> products; // in the order of the requested ids, each product once
+    private List<Long> missingIds; // requested ids without a product
+}
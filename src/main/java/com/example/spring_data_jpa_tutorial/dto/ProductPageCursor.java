@@ -0,0 +1,41 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset position of the last product on a page.
+// Serialized as an opaque URL-safe token so clients cannot depend on its layout.
+@Data
+@AllArgsConstructor
+public class ProductPageCursor {
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_PRICE = "price";
+
+    private String sortBy;
+    private Long id;
+    private Double price; // only set when sortBy is "price"
+
+    public String encode() {
+        String raw = SORT_BY_PRICE.equals(sortBy) ? sortBy + ":" + price + ":" + id : sortBy + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductPageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length == 2 && SORT_BY_ID.equals(parts[0])) {
+                return new ProductPageCursor(SORT_BY_ID, Long.parseLong(parts[1]), null);
+            }
+            if (parts.length == 3 && SORT_BY_PRICE.equals(parts[0])) {
+                return new ProductPageCursor(SORT_BY_PRICE, Long.parseLong(parts[2]), Double.parseDouble(parts[1]));
+            }
+        } catch (IllegalArgumentException e) {
+            // falls through to the error below (also covers NumberFormatException)
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + token);
+    }
+}
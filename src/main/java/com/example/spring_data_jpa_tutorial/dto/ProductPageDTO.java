@@ -0,0 +1,14 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import com.example.spring_data_jpa_tutorial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductPageDTO {
+    private List<Product> items;
+    private String nextCursor; // null on the last page
+}
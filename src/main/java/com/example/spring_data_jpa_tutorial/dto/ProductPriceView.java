@@ -0,0 +1,8 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+// Interface projection with the columns the in-memory price index is built from
+public interface ProductPriceView {
+    Long getId();
+    Long getCategoryId();
+    Double getPrice();
+}
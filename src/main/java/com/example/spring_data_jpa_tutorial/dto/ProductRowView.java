@@ -0,0 +1,10 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+// Interface projection for native queries: Spring Data maps the column aliases to these getters
+public interface ProductRowView {
+    Long getId();
+    String getName();
+    Double getPrice();
+    String getDescription();
+    Long getCategoryId();
+}
@@ -0,0 +1,12 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import com.example.spring_data_jpa_tutorial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchHitDTO {
+    private Product product;
+    private Float score; // relevance, higher is better
+}
@@ -0,0 +1,15 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private long totalHits;
+    private int page;
+    private int size;
+    private List<ProductSearchHitDTO> hits; // best match first
+}
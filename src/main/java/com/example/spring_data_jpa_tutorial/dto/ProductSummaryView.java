@@ -0,0 +1,9 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+// Interface projection for native queries: Spring Data maps the column aliases to these getters
+public interface ProductSummaryView {
+    Long getId();
+    String getName();
+    Double getPrice();
+    String getCategoryName();
+}
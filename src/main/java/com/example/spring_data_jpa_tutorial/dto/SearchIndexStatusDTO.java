@@ -0,0 +1,16 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+// State of the last full-text index rebuild
+@Data
+@AllArgsConstructor
+public class SearchIndexStatusDTO {
+    private boolean rebuilding;
+    private Instant lastRebuildStartedAt; // null when the index was never rebuilt
+    private Instant lastRebuildFinishedAt;
+    private String lastRebuildError; // null when the last rebuild succeeded or is still running
+}
@@ -0,0 +1,72 @@
+package com.example.spring_data_jpa_tutorial.dto;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Collection;
+
+// Cheap fingerprint of a representation, used as its ETag.
+// Versions only ever grow, so their sum changes on every update; row count and id sums change when rows
+// are added or removed. Repositories compute it with an aggregate query, controllers from loaded entities,
+// and both must produce the same value for the same rows.
+@Data
+@AllArgsConstructor
+public class VersionStampDTO {
+    private Long rows;
+    private Long maxId;
+    private Long idSum;
+    private Long versionSum;
+
+    public String toETag(String kind) {
+        return "\"" + fingerprint(kind) + "\"";
+    }
+
+    // ETag of a representation that combines two stamps, e.g. categories with their products
+    public String toETag(String kind, VersionStampDTO other, String otherKind) {
+        return "\"" + fingerprint(kind) + "_" + other.fingerprint(otherKind) + "\"";
+    }
+
+    private String fingerprint(String kind) {
+        return kind + "-" + rows + "." + maxId + "." + idSum + "." + versionSum;
+    }
+
+    // A product is rendered with its category, so both versions count
+    public static VersionStampDTO ofProduct(Product product) {
+        Category category = product.getCategory();
+        return new VersionStampDTO(1L, product.getId(), category.getId(),
+                versionOf(product.getVersion()) + versionOf(category.getVersion()));
+    }
+
+    // A category rendered with its products
+    public static VersionStampDTO ofCategoryWithProducts(Category category) {
+        VersionStampDTO products = ofProducts(category.getProducts());
+        products.setVersionSum(products.getVersionSum() + versionOf(category.getVersion()));
+        return products;
+    }
+
+    public static VersionStampDTO ofCategories(Collection<Category> categories) {
+        long maxId = 0, idSum = 0, versionSum = 0;
+        for (Category category : categories) {
+            maxId = Math.max(maxId, category.getId());
+            idSum += category.getId();
+            versionSum += versionOf(category.getVersion());
+        }
+        return new VersionStampDTO((long) categories.size(), maxId, idSum, versionSum);
+    }
+
+    public static VersionStampDTO ofProducts(Collection<Product> products) {
+        long maxId = 0, idSum = 0, versionSum = 0;
+        for (Product product : products) {
+            maxId = Math.max(maxId, product.getId());
+            idSum += product.getId();
+            versionSum += versionOf(product.getVersion());
+        }
+        return new VersionStampDTO((long) products.size(), maxId, idSum, versionSum);
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0L; // rows written outside JPA may have no version yet
+    }
+}
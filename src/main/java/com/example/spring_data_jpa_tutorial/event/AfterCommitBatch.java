@@ -0,0 +1,57 @@
+package com.example.spring_data_jpa_tutorial.event;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Groups the changes a CatalogChangeHandler receives from one transaction, so derived data is updated once per
+// commit instead of once per row (an import commits hundreds of products at a time).
+// Hibernate reports entity changes from inside the commit and CatalogChangePublisher from afterCommit; the batch
+// is handed to the consumer in afterCompletion, after both. Without transaction synchronization every change is
+// handed over on its own. The consumer runs after the commit: database access needs PROPAGATION_REQUIRES_NEW.
+public final class AfterCommitBatch<T> {
+
+    private final Consumer<List<T>> consumer;
+
+    public AfterCommitBatch(Consumer<List<T>> consumer) {
+        this.consumer = consumer;
+    }
+
+    public void add(T change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consumer.accept(List.of(change));
+            return;
+        }
+        // Synchronizations belong to the transaction (they are suspended with it), unlike bound resources
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Batch<?> batch && batch.owner == this) {
+                @SuppressWarnings("unchecked")
+                List<T> changes = (List<T>) batch.changes;
+                changes.add(change);
+                return;
+            }
+        }
+        Batch<T> batch = new Batch<>(this);
+        batch.changes.add(change);
+        TransactionSynchronizationManager.registerSynchronization(batch);
+    }
+
+    private static final class Batch<T> implements TransactionSynchronization {
+        private final AfterCommitBatch<T> owner;
+        private final List<T> changes = new ArrayList<>();
+
+        Batch(AfterCommitBatch<T> owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                owner.consumer.accept(changes);
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.spring_data_jpa_tutorial.event;
+
+// Receives product and category changes after the transaction that made them has committed.
+// Implemented by beans that maintain derived data (aggregates, indexes) next to the database;
+// CatalogChangeListener calls every handler bean in the committing thread.
+// Bulk JPQL statements are reported per category by CatalogChangePublisher; plain SQL is not reported at all,
+// derived data offers a rebuild for those.
+public interface CatalogChangeHandler {
+
+    default void productInserted(Long productId, Long categoryId, Double price) {
+    }
+
+    // Old values describe the row before the update; a category move has oldCategoryId != newCategoryId
+    default void productUpdated(Long productId, Long oldCategoryId, Double oldPrice, Long newCategoryId, Double newPrice) {
+    }
+
+    default void productDeleted(Long productId, Long categoryId, Double price) {
+    }
+
+    // Products of the category were changed by a bulk statement (see CatalogChangePublisher);
+    // derived data for the category has to be reloaded from the database
+    default void categoryProductsChanged(Long categoryId) {
+    }
+
+    // Inserted or updated
+    default void categorySaved(Long categoryId, String name) {
+    }
+
+    default void categoryDeleted(Long categoryId) {
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.spring_data_jpa_tutorial.event;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Hibernate post-commit listener translating entity events into CatalogChangeHandler calls.
+// Rolled back changes are never reported. Registered by CatalogEventsConfig.
+public class CatalogChangeListener
+        implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeListener.class);
+
+    private final Supplier<List<CatalogChangeHandler>> handlers;
+
+    public CatalogChangeListener(Supplier<List<CatalogChangeHandler>> handlers) {
+        this.handlers = handlers;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entityClass = persister.getMappedClass();
+        return entityClass == Product.class || entityClass == Category.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Product product) {
+            notifyHandlers(h -> h.productInserted(product.getId(), product.getCategory().getId(), product.getPrice()));
+        } else if (event.getEntity() instanceof Category category) {
+            notifyHandlers(h -> h.categorySaved(category.getId(), category.getName()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Product product) {
+            Long newCategoryId = product.getCategory().getId();
+            Object[] oldState = event.getOldState();
+            if (oldState == null) {
+                // Updated without a loaded snapshot (detached update): treat as unknown old values
+                notifyHandlers(h -> h.productUpdated(product.getId(), null, null, newCategoryId, product.getPrice()));
+                return;
+            }
+            String[] properties = event.getPersister().getPropertyNames();
+            Category oldCategory = (Category) oldState[indexOf(properties, "category")];
+            Double oldPrice = (Double) oldState[indexOf(properties, "price")];
+            Long oldCategoryId = oldCategory != null ? oldCategory.getId() : null; // a proxy returns its id without loading
+            notifyHandlers(h -> h.productUpdated(product.getId(), oldCategoryId, oldPrice, newCategoryId, product.getPrice()));
+        } else if (event.getEntity() instanceof Category category) {
+            notifyHandlers(h -> h.categorySaved(category.getId(), category.getName()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Product product) {
+            notifyHandlers(h -> h.productDeleted(product.getId(), product.getCategory().getId(), product.getPrice()));
+        } else if (event.getEntity() instanceof Category category) {
+            notifyHandlers(h -> h.categoryDeleted(category.getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    // The transaction is already committed: a failing handler must not fail the caller
+    private void notifyHandlers(Consumer<CatalogChangeHandler> call) {
+        for (CatalogChangeHandler handler : handlers.get()) {
+            try {
+                call.accept(handler);
+            } catch (RuntimeException e) {
+                log.warn("Catalog change handler {} failed", handler.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private static int indexOf(String[] properties, String name) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No property " + name);
+    }
+}
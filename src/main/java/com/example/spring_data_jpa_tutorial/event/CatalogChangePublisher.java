@@ -0,0 +1,40 @@
+package com.example.spring_data_jpa_tutorial.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+// Reports bulk statement changes, which Hibernate entity events never see, to the CatalogChangeHandler beans
+@Component
+public class CatalogChangePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangePublisher.class);
+
+    @Autowired
+    private ObjectProvider<CatalogChangeHandler> handlers;
+
+    // Calls categoryProductsChanged for every category once the current transaction has committed;
+    // nothing is reported on rollback
+    public void publishBulkChangeAfterCommit(Collection<Long> categoryIds) {
+        List<Long> changedCategories = List.copyOf(categoryIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                handlers.orderedStream().forEach(handler -> changedCategories.forEach(categoryId -> {
+                    try {
+                        handler.categoryProductsChanged(categoryId);
+                    } catch (RuntimeException e) {
+                        log.warn("Catalog change handler {} failed", handler.getClass().getSimpleName(), e);
+                    }
+                }));
+            }
+        });
+    }
+}
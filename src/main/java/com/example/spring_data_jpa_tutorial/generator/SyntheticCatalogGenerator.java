@@ -0,0 +1,180 @@
+package com.example.spring_data_jpa_tutorial.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Generates a realistic catalog with JDBC batch inserts, bypassing JPA:
+// - category sizes follow a Zipf-like distribution (a few large categories, a long tail of small ones)
+// - prices are log-normal around a per-category median (cheap and expensive categories)
+// - description lengths are skewed towards short texts, some products have none
+// The same seed always produces the same catalog. Rows get ids above the current maximum,
+// and the sequences are moved past them so the application can keep inserting.
+@Component
+@Profile("generate")
+public class SyntheticCatalogGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticCatalogGenerator.class);
+
+    // Must match allocationSize of the entity sequence generators
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+    // products.description is VARCHAR(255)
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private static final String[] ADJECTIVES = {"Compact", "Premium", "Classic", "Wireless", "Portable", "Smart",
+            "Heavy-Duty", "Eco", "Ultra", "Vintage", "Modular", "Professional", "Mini", "Deluxe", "Rugged"};
+    private static final String[] NOUNS = {"Speaker", "Backpack", "Lamp", "Keyboard", "Kettle", "Jacket", "Monitor",
+            "Blender", "Tent", "Watch", "Chair", "Camera", "Notebook", "Drill", "Headphones", "Bottle", "Router"};
+    private static final String[] DEPARTMENTS = {"Electronics", "Books", "Home", "Garden", "Toys", "Sports", "Fashion",
+            "Beauty", "Automotive", "Grocery", "Office", "Music", "Health", "Pets", "Tools"};
+    private static final String[] WORDS = {"durable", "lightweight", "design", "everyday", "use", "with", "and", "for",
+            "quality", "materials", "easy", "to", "clean", "battery", "warranty", "included", "perfect", "gift",
+            "compatible", "high", "performance", "stainless", "steel", "soft", "touch", "adjustable", "size"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.generator.categories:200}")
+    private int categoryCount;
+
+    @Value("${app.generator.products:1000000}")
+    private int productCount;
+
+    // Zipf exponent of the category sizes; 0 spreads products evenly
+    @Value("${app.generator.category-skew:1.1}")
+    private double categorySkew;
+
+    // Spread of prices within a category (sigma of the log-normal distribution)
+    @Value("${app.generator.price-sigma:0.8}")
+    private double priceSigma;
+
+    @Value("${app.generator.seed:42}")
+    private long seed;
+
+    // Rows per JDBC batch and per transaction
+    @Value("${app.generator.batch-size:5000}")
+    private int batchSize;
+
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(seed);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+
+        long firstCategoryId = nextId("category");
+        double[] medianPrices = new double[categoryCount];
+        List<Object[]> categories = new ArrayList<>(categoryCount);
+        for (int c = 0; c < categoryCount; c++) {
+            medianPrices[c] = Math.exp(Math.log(5) + random.nextDouble() * Math.log(100)); // 5 .. 500
+            String department = DEPARTMENTS[c % DEPARTMENTS.length];
+            categories.add(new Object[]{firstCategoryId + c, department + " " + (c + 1),
+                    words(random, department + " products:", 40 + random.nextInt(200))});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "INSERT INTO category (id, name, description, version) VALUES (?, ?, ?, 0)", categories));
+        restartSequence("category_seq", firstCategoryId + categoryCount - 1);
+
+        double[] cumulativeWeights = zipfCumulativeWeights(categoryCount, categorySkew);
+        long firstProductId = nextId("products");
+        long productsStart = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < productCount; i++) {
+            long id = firstProductId + i;
+            int category = pickCategory(cumulativeWeights, random.nextDouble());
+            double price = Math.round(medianPrices[category] * Math.exp(priceSigma * gaussian(random)) * 100) / 100.0;
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + id;
+            batch.add(new Object[]{id, name, Math.max(0.01, price), productDescription(random), firstCategoryId + category});
+
+            if (batch.size() == batchSize || i == productCount - 1) {
+                List<Object[]> rows = batch;
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)", rows));
+                batch = new ArrayList<>(batchSize);
+                logProgress(i + 1, productsStart);
+            }
+        }
+        restartSequence("products_seq", firstProductId + productCount - 1);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        log.info("Generated {} categories and {} products in {} s ({} rows/s)", categoryCount, productCount,
+                String.format("%.2f", seconds), Math.round((categoryCount + productCount) / seconds));
+    }
+
+    // Progress roughly every 10% of the products
+    private void logProgress(int inserted, long productsStart) {
+        int step = Math.max(batchSize, productCount / 10);
+        if (inserted % step < batchSize || inserted == productCount) {
+            double seconds = (System.nanoTime() - productsStart) / 1e9;
+            log.info("Inserted {}/{} products ({} rows/s)", inserted, productCount, Math.round(inserted / seconds));
+        }
+    }
+
+    private long nextId(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return maxId != null ? maxId + 1 : 1;
+    }
+
+    // The pooled optimizer hands out a block of allocationSize ids per sequence value;
+    // one full block of headroom keeps those blocks above the generated ids
+    private void restartSequence(String sequence, long lastUsedId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastUsedId + SEQUENCE_ALLOCATION_SIZE + 1));
+    }
+
+    private static double[] zipfCumulativeWeights(int count, double skew) {
+        double[] cumulative = new double[count];
+        double total = 0;
+        for (int k = 0; k < count; k++) {
+            total += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = total;
+        }
+        for (int k = 0; k < count; k++) {
+            cumulative[k] /= total;
+        }
+        return cumulative;
+    }
+
+    private static int pickCategory(double[] cumulativeWeights, double u) {
+        int index = Arrays.binarySearch(cumulativeWeights, u);
+        return Math.min(index >= 0 ? index : -index - 1, cumulativeWeights.length - 1);
+    }
+
+    // Standard normal value (Box-Muller)
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    // 10% without description; the rest mostly short, with a tail up to the column length
+    private static String productDescription(SplittableRandom random) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        double u = random.nextDouble();
+        int length = 16 + (int) ((MAX_DESCRIPTION_LENGTH - 16) * u * u * u);
+        return words(random, "", length);
+    }
+
+    // Random words after the prefix, cut to the given length
+    private static String words(SplittableRandom random, String prefix, int length) {
+        StringBuilder text = new StringBuilder(prefix);
+        while (text.length() < length) {
+            if (!text.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.length() > length ? text.substring(0, length) : text.toString();
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.spring_data_jpa_tutorial.index;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductPriceView;
+import com.example.spring_data_jpa_tutorial.event.AfterCommitBatch;
+import com.example.spring_data_jpa_tutorial.event.CatalogChangeHandler;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// In-memory (price, id) index per category, answering price range queries without touching the database.
+// Loaded in the background at startup; until then, and while rebuilding, callers fall back to SQL (null results).
+// Kept in sync with committed changes through CatalogChangeHandler, one merge per category and commit; every change
+// is applied by product id, so changes replayed after a rebuild are harmless. Plain SQL writes need a rebuild().
+@Component
+@ConditionalOnProperty(name = "app.price-index.enabled", havingValue = "true")
+public class PriceRangeIndex implements CatalogChangeHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceRangeIndex.class);
+
+    // Readers only see complete arrays; writers replace them under the monitor of this index
+    private final Map<Long, SortedPriceArray> categories = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    // One rebuild or category reload at a time
+    private final Object rebuildLock = new Object();
+
+    // Changes of one commit, merged into each category they touch in one pass
+    private final AfterCommitBatch<PriceChange> committedChanges = new AfterCommitBatch<>(this::apply);
+
+    private final AfterCommitBatch<Long> reloadedCategories = new AfterCommitBatch<>(this::reload);
+
+    // Batches applied while a rebuild or reload is loading, replayed on top of its rows (guarded by this)
+    private List<List<PriceChange>> pendingChanges;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Thread.ofPlatform().name("price-index-loader").daemon().start(this::rebuild);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Ids of the category's products with minPrice <= price <= maxPrice, ordered by price.
+    // null when the index is not loaded or more than maxResults products match.
+    public long[] findIdsInRange(Long categoryId, double minPrice, double maxPrice, int maxResults) {
+        if (!ready) {
+            return null;
+        }
+        SortedPriceArray prices = categories.getOrDefault(categoryId, SortedPriceArray.EMPTY);
+        return prices.countBetween(minPrice, maxPrice) <= maxResults ? prices.idsBetween(minPrice, maxPrice) : null;
+    }
+
+    // Same over all categories; ordered by price within each category
+    public long[] findIdsInRange(double minPrice, double maxPrice, int maxResults) {
+        if (!ready) {
+            return null;
+        }
+        List<SortedPriceArray> snapshot = new ArrayList<>(categories.values());
+        long count = 0;
+        for (SortedPriceArray prices : snapshot) {
+            count += prices.countBetween(minPrice, maxPrice);
+        }
+        if (count > maxResults) {
+            return null;
+        }
+        return concat(snapshot.stream().map(prices -> prices.idsBetween(minPrice, maxPrice)), (int) count);
+    }
+
+    // Ids with price > minPrice over all categories
+    public long[] findIdsAbove(double minPrice, int maxResults) {
+        if (!ready) {
+            return null;
+        }
+        List<SortedPriceArray> snapshot = new ArrayList<>(categories.values());
+        long count = 0;
+        for (SortedPriceArray prices : snapshot) {
+            count += prices.countAbove(minPrice);
+        }
+        if (count > maxResults) {
+            return null;
+        }
+        return concat(snapshot.stream().map(prices -> prices.idsAbove(minPrice)), (int) count);
+    }
+
+    // Reloads every category from one streamed query ordered like the index
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                ready = false;
+                pendingChanges = new ArrayList<>();
+            }
+            try {
+                long start = System.nanoTime();
+                Map<Long, SortedPriceArray.Builder> builders = new HashMap<>();
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                transactionTemplate.setReadOnly(true);
+                Long rows = transactionTemplate.execute(status -> {
+                    long count = 0;
+                    try (Stream<ProductPriceView> entries = productRepository.streamPriceEntries()) {
+                        for (ProductPriceView entry : (Iterable<ProductPriceView>) entries::iterator) {
+                            builders.computeIfAbsent(entry.getCategoryId(), id -> new SortedPriceArray.Builder())
+                                    .add(entry.getId(), entry.getPrice());
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+
+                synchronized (this) {
+                    categories.clear();
+                    builders.forEach((categoryId, builder) -> categories.put(categoryId, builder.build()));
+                    pendingChanges.forEach(this::merge);
+                    pendingChanges = null;
+                    ready = true;
+                }
+                log.info("Price index loaded: {} products in {} categories, {} ms",
+                        rows, builders.size(), (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                // Stays unavailable (callers use SQL) until the next successful rebuild
+                synchronized (this) {
+                    pendingChanges = null;
+                }
+                log.warn("Price index could not be loaded", e);
+            }
+        }
+    }
+
+    // --- CatalogChangeHandler ---
+
+    @Override
+    public void productInserted(Long productId, Long categoryId, Double price) {
+        committedChanges.add(new PriceChange(productId, null, false, categoryId, price));
+    }
+
+    @Override
+    public void productUpdated(Long productId, Long oldCategoryId, Double oldPrice, Long newCategoryId, Double newPrice) {
+        committedChanges.add(new PriceChange(productId, oldCategoryId, oldCategoryId == null, newCategoryId, newPrice));
+    }
+
+    @Override
+    public void productDeleted(Long productId, Long categoryId, Double price) {
+        committedChanges.add(new PriceChange(productId, categoryId, false, null, null));
+    }
+
+    @Override
+    public void categoryProductsChanged(Long categoryId) {
+        reloadedCategories.add(categoryId);
+    }
+
+    @Override
+    public synchronized void categoryDeleted(Long categoryId) {
+        categories.remove(categoryId);
+    }
+
+    private synchronized void apply(List<PriceChange> batch) {
+        if (pendingChanges != null) {
+            pendingChanges.add(batch);
+        }
+        merge(batch);
+    }
+
+    // Reloads the categories with one query each (after a running rebuild). The rows are read before taking the
+    // monitor; changes applied in the meantime are replayed on top of them, like after a rebuild.
+    private void reload(List<Long> changedCategoryIds) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pendingChanges = new ArrayList<>();
+            }
+            try {
+                Map<Long, SortedPriceArray> loaded = new HashMap<>();
+                for (Long categoryId : new LinkedHashSet<>(changedCategoryIds)) {
+                    SortedPriceArray.Builder builder = new SortedPriceArray.Builder();
+                    for (ProductPriceView entry : queryPrimary(() -> productRepository.findPriceEntriesByCategoryId(categoryId))) {
+                        builder.add(entry.getId(), entry.getPrice());
+                    }
+                    loaded.put(categoryId, builder.build());
+                }
+                synchronized (this) {
+                    loaded.forEach((categoryId, prices) -> {
+                        if (prices.size() > 0) {
+                            categories.put(categoryId, prices);
+                        } else {
+                            categories.remove(categoryId);
+                        }
+                    });
+                    pendingChanges.forEach(this::merge);
+                }
+            } finally {
+                synchronized (this) {
+                    pendingChanges = null;
+                }
+            }
+        }
+    }
+
+    // Called with the monitor held: the net change of every product, merged into each affected category once
+    private void merge(List<PriceChange> batch) {
+        Map<Long, Set<Long>> removed = new HashMap<>();
+        Set<Long> removedEverywhere = new HashSet<>();
+        Map<Long, PriceChange> latest = new LinkedHashMap<>();
+        for (PriceChange change : batch) {
+            if (change.oldCategoryUnknown()) {
+                removedEverywhere.add(change.productId());
+            } else if (change.oldCategoryId() != null) {
+                removed.computeIfAbsent(change.oldCategoryId(), id -> new HashSet<>()).add(change.productId());
+            }
+            latest.put(change.productId(), change);
+        }
+        Map<Long, Map<Long, Double>> added = new HashMap<>();
+        for (PriceChange change : latest.values()) {
+            if (change.newCategoryId() != null && change.newPrice() != null) {
+                added.computeIfAbsent(change.newCategoryId(), id -> new HashMap<>()).put(change.productId(), change.newPrice());
+            }
+        }
+
+        Set<Long> affected = new HashSet<>(removed.keySet());
+        affected.addAll(added.keySet());
+        if (!removedEverywhere.isEmpty()) {
+            affected.addAll(categories.keySet());
+        }
+        for (Long categoryId : affected) {
+            Set<Long> removedIds = new HashSet<>(removedEverywhere);
+            removedIds.addAll(removed.getOrDefault(categoryId, Set.of()));
+            Map<Long, Double> addedPrices = added.getOrDefault(categoryId, Map.of());
+            categories.compute(categoryId, (id, prices) -> {
+                SortedPriceArray merged = (prices != null ? prices : SortedPriceArray.EMPTY).merge(removedIds, addedPrices);
+                return merged.size() > 0 ? merged : null;
+            });
+        }
+    }
+
+    // In a new transaction on the primary: called after the commit of the reported change
+    private <T> T queryPrimary(Supplier<T> query) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    // A committed product change: no old category for an insert, no new category for a delete
+    private record PriceChange(long productId, Long oldCategoryId, boolean oldCategoryUnknown, Long newCategoryId, Double newPrice) {
+    }
+
+    // size is the total length of the parts, counted on the same immutable snapshot
+    private static long[] concat(Stream<long[]> parts, int size) {
+        long[] result = new long[size];
+        int position = 0;
+        for (long[] part : (Iterable<long[]>) parts::iterator) {
+            System.arraycopy(part, 0, result, position, part.length);
+            position += part.length;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.spring_data_jpa_tutorial.index;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+// Immutable (price, id) pairs sorted by price, then id, in two parallel primitive arrays.
+// Range lookups are two binary searches; the changes of a commit are merged into a new copy in one pass
+// (copy-on-write), so readers never need a lock.
+final class SortedPriceArray {
+
+    static final SortedPriceArray EMPTY = new SortedPriceArray(new double[0], new long[0]);
+
+    private final double[] prices;
+    private final long[] ids;
+
+    private SortedPriceArray(double[] prices, long[] ids) {
+        this.prices = prices;
+        this.ids = ids;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // Ids with min <= price <= max, ordered by price
+    long[] idsBetween(double min, double max) {
+        int from = lowerBound(min, Long.MIN_VALUE);
+        int to = lowerBound(max, Long.MAX_VALUE);
+        return from < to ? Arrays.copyOfRange(ids, from, to) : new long[0];
+    }
+
+    // Ids with price > min, ordered by price
+    long[] idsAbove(double min) {
+        return Arrays.copyOfRange(ids, lowerBound(min, Long.MAX_VALUE), ids.length);
+    }
+
+    int countBetween(double min, double max) {
+        return Math.max(0, lowerBound(max, Long.MAX_VALUE) - lowerBound(min, Long.MIN_VALUE));
+    }
+
+    int countAbove(double min) {
+        return ids.length - lowerBound(min, Long.MAX_VALUE);
+    }
+
+    // Copy without the entries of the removed ids and with the added (id, price) pairs, built in one pass over
+    // both. An added id replaces its existing entry, so a change replayed after a rebuild is harmless.
+    SortedPriceArray merge(Set<Long> removedIds, Map<Long, Double> added) {
+        long[] addedIds = new long[added.size()];
+        double[] addedPrices = new double[added.size()];
+        Long[] order = added.keySet().toArray(new Long[0]);
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Double.compare(added.get(a), added.get(b));
+            return cmp != 0 ? cmp : Long.compare(a, b);
+        });
+        for (int i = 0; i < order.length; i++) {
+            addedIds[i] = order[i];
+            addedPrices[i] = added.get(order[i]);
+        }
+        // Ids whose existing entry is dropped, sorted for binary search (no boxing per entry)
+        long[] skipped = Stream.concat(removedIds.stream(), added.keySet().stream())
+                .mapToLong(Long::longValue).sorted().toArray();
+
+        double[] newPrices = new double[ids.length + addedIds.length];
+        long[] newIds = new long[ids.length + addedIds.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (Arrays.binarySearch(skipped, ids[i]) >= 0) {
+                continue;
+            }
+            while (next < addedIds.length && less(addedPrices[next], addedIds[next], prices[i], ids[i])) {
+                newPrices[size] = addedPrices[next];
+                newIds[size++] = addedIds[next++];
+            }
+            newPrices[size] = prices[i];
+            newIds[size++] = ids[i];
+        }
+        while (next < addedIds.length) {
+            newPrices[size] = addedPrices[next];
+            newIds[size++] = addedIds[next++];
+        }
+        return size == 0 ? EMPTY : new SortedPriceArray(Arrays.copyOf(newPrices, size), Arrays.copyOf(newIds, size));
+    }
+
+    private static boolean less(double price, long id, double otherPrice, long otherId) {
+        int cmp = Double.compare(price, otherPrice);
+        return cmp < 0 || (cmp == 0 && id < otherId);
+    }
+
+    // First position whose (price, id) is not less than the given pair
+    private int lowerBound(double price, long id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Double.compare(prices[mid], price);
+            if (cmp < 0 || (cmp == 0 && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Collects pairs that arrive already sorted by (price, id), as from an ORDER BY price, id query
+    static final class Builder {
+        private double[] prices = new double[16];
+        private long[] ids = new long[16];
+        private int size;
+
+        void add(long id, double price) {
+            if (size == ids.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            prices[size] = price;
+            ids[size] = id;
+            size++;
+        }
+
+        SortedPriceArray build() {
+            return new SortedPriceArray(Arrays.copyOf(prices, size), Arrays.copyOf(ids, size));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+// Records rows returned and JDBC statements executed per repository method.
+// Latency is already timed by Spring Boot as "spring.data.repository.invocations".
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String repositoryName;
+
+    public RepositoryMetricsInterceptor(MeterRegistry meterRegistry, String repositoryName) {
+        this.meterRegistry = meterRegistry;
+        this.repositoryName = repositoryName;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long statementsBefore = SqlStatementRecorder.statementCount();
+        Object result = invocation.proceed();
+
+        Tags tags = Tags.of("repository", repositoryName, "method", invocation.getMethod().getName());
+        DistributionSummary.builder("repository.invocation.statements")
+                .description("JDBC statements executed by one repository call")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(SqlStatementRecorder.statementCount() - statementsBefore);
+        long rows = rowCount(result);
+        if (rows >= 0) {
+            DistributionSummary.builder("repository.invocation.rows")
+                    .description("Rows returned by one repository call")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+        return result;
+    }
+
+    // -1 when the size is not known up front (streams are consumed after the call returns)
+    private static long rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream<?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+
+import java.sql.ResultSet;
+
+// Counts the rows read through proxied result sets (app.sql.count-rows=true): a successful ResultSet.next()
+// is one row transferred from the database, however few of its columns end up in an entity
+public class ResultSetRowListener implements MethodExecutionListener {
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStatementRecorder.rowRead();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Counts the JDBC statements of each HTTP request and flags likely N+1 patterns:
+// the same SQL text executed at least nPlusOneThreshold times while serving one request.
+// The recording is kept on the request: an asynchronous request is only recorded at the end of its async dispatch,
+// after the executor threads (see SqlRecordingTaskDecorator) have added their statements.
+// With row counting on, the rows read from result sets are recorded as well: a statement that stays within its
+// budget can still transfer far more rows than the response needs.
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    // The request's SqlStatementRecorder.Recording
+    public static final String RECORDING_ATTRIBUTE = SqlMetricsFilter.class.getName() + ".recording";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final boolean countRows;
+
+    public SqlMetricsFilter(MeterRegistry meterRegistry, int nPlusOneThreshold, boolean countRows) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.countRows = countRows;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementRecorder.Recording recording = (SqlStatementRecorder.Recording) request.getAttribute(RECORDING_ATTRIBUTE);
+        if (recording == null) {
+            recording = SqlStatementRecorder.startRecording();
+            request.setAttribute(RECORDING_ATTRIBUTE, recording);
+        } else {
+            SqlStatementRecorder.bind(recording);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatementRecorder.stopRecording();
+            if (!request.isAsyncStarted()) {
+                record(request, recording);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, SqlStatementRecorder.Recording recording) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("JDBC statements executed while serving one HTTP request")
+                .tags("method", request.getMethod(), "uri", uri)
+                .register(meterRegistry)
+                .record(recording.getTotal());
+
+        if (countRows) {
+            DistributionSummary.builder("http.server.requests.sql.rows")
+                    .description("Rows read from JDBC result sets while serving one HTTP request")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .register(meterRegistry)
+                    .record(recording.getRows());
+        }
+
+        for (Map.Entry<String, Long> entry : recording.getExecutionsBySql().entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                log.warn("Possible N+1 on {} {}: {} executions of {}", request.getMethod(), uri, entry.getValue(), entry.getKey());
+                Counter.builder("http.server.requests.n-plus-one")
+                        .description("Requests that repeated the same SQL statement at least the N+1 threshold")
+                        .tags("method", request.getMethod(), "uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+// Receives every statement sent through the proxied DataSource: counts it for the current thread
+// and logs it with its bind parameters when it took longer than the slow query threshold.
+public class SqlMetricsListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsListener.class);
+
+    private final long slowQueryThresholdMillis;
+
+    public SqlMetricsListener(Duration slowQueryThreshold) {
+        this.slowQueryThresholdMillis = slowQueryThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // A JDBC batch is one round trip and counts as one statement
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlStatementRecorder.statementExecuted(queryInfo.getQuery());
+        }
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                log.warn("Slow query ({} ms{}): {} parameters={}", execInfo.getElapsedTime(),
+                        execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                        queryInfo.getQuery(), parameters(queryInfo));
+            }
+        }
+    }
+
+    private static List<List<Object>> parameters(QueryInfo queryInfo) {
+        // ParameterSetOperation args are (index or name, value, ...)
+        return queryInfo.getParametersList().stream()
+                .map(operations -> operations.stream()
+                        .map(ParameterSetOperation::getArgs)
+                        .map(args -> args.length > 1 ? args[1] : null)
+                        .toList())
+                .toList();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import org.springframework.core.task.TaskDecorator;
+
+// Carries the recording of the submitting request over to executor threads, so statements run on behalf of an
+// asynchronous request (Spring MVC's StreamingResponseBody, /api/async) count for that request
+public class SqlRecordingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SqlStatementRecorder.Recording recording = SqlStatementRecorder.currentRecording();
+        if (recording == null) {
+            return runnable;
+        }
+        return () -> {
+            SqlStatementRecorder.Recording previous = SqlStatementRecorder.bind(recording);
+            try {
+                runnable.run();
+            } finally {
+                SqlStatementRecorder.bind(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bookkeeping of executed JDBC statements.
+// The running count per thread is always kept (repository calls measure their delta); a recording additionally
+// groups statements by SQL text for one HTTP request, which is what N+1 detection needs. A recording belongs to
+// the request, not the thread: SqlRecordingTaskDecorator binds it on executor threads that work for the request.
+public final class SqlStatementRecorder {
+
+    private static final ThreadLocal<long[]> STATEMENT_COUNT = ThreadLocal.withInitial(() -> new long[1]);
+    private static final ThreadLocal<Recording> CURRENT_RECORDING = new ThreadLocal<>();
+
+    private SqlStatementRecorder() {
+    }
+
+    static void statementExecuted(String sql) {
+        STATEMENT_COUNT.get()[0]++;
+        Recording recording = CURRENT_RECORDING.get();
+        if (recording != null) {
+            recording.add(sql);
+        }
+    }
+
+    // Only called when result sets are proxied (app.sql.count-rows=true)
+    static void rowRead() {
+        Recording recording = CURRENT_RECORDING.get();
+        if (recording != null) {
+            recording.rows.increment();
+        }
+    }
+
+    // Statements executed by the current thread so far
+    public static long statementCount() {
+        return STATEMENT_COUNT.get()[0];
+    }
+
+    public static Recording startRecording() {
+        Recording recording = new Recording();
+        CURRENT_RECORDING.set(recording);
+        return recording;
+    }
+
+    public static void stopRecording() {
+        CURRENT_RECORDING.remove();
+    }
+
+    public static Recording currentRecording() {
+        return CURRENT_RECORDING.get();
+    }
+
+    // Makes the current thread record into the given recording (null: none); returns the previous one
+    public static Recording bind(Recording recording) {
+        Recording previous = CURRENT_RECORDING.get();
+        if (recording != null) {
+            CURRENT_RECORDING.set(recording);
+        } else {
+            CURRENT_RECORDING.remove();
+        }
+        return previous;
+    }
+
+    // Filled from every thread working for the request
+    public static class Recording {
+        private final Map<String, LongAdder> executionsBySql = new ConcurrentHashMap<>();
+        private final LongAdder total = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        private void add(String sql) {
+            executionsBySql.computeIfAbsent(sql, key -> new LongAdder()).increment();
+            total.increment();
+        }
+
+        public long getTotal() {
+            return total.sum();
+        }
+
+        // Rows read from result sets; 0 unless app.sql.count-rows=true
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public Map<String, Long> getExecutionsBySql() {
+            Map<String, Long> result = new ConcurrentHashMap<>();
+            executionsBySql.forEach((sql, count) -> result.put(sql, count.sum()));
+            return result;
+        }
+    }
+}
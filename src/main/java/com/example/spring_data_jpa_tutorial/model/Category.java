@@ -1,19 +1,31 @@
 package com.example.spring_data_jpa_tutorial.model;
 
+import com.example.spring_data_jpa_tutorial.config.CacheConfig;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable // second-level cache, only active when app.cache.enabled=true
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.CATEGORY_REGION)
 @Data
+// Read modes: repositories pick one explicitly instead of relying on the mapping's fetch type
+@NamedEntityGraph(name = "Category.summary") // category columns only, products stay unloaded
+@NamedEntityGraph(name = "Category.withProducts", attributeNodes = @NamedAttributeNode("products"))
 @Schema(description = "Category entity for grouping products")
 public class Category {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY: ids are known before the INSERT, so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq")
+    @SequenceGenerator(name = "category_seq", sequenceName = "category_seq", allocationSize = 50)
     @Schema(description = "Unique identifier of the category", example = "1")
     private Long id;
 
@@ -22,14 +34,23 @@ public class Category {
     private String name;
 
     @Column(length = 500)
+    @FullTextField // embedded into the product index; a change reindexes the category's products
     @Schema(description = "Description of the category", example = "Electronic devices and accessories")
     private String description;
 
+    // Optimistic locking; incremented by Hibernate on every update and exposed to clients through the ETag
+    @Version
+    @EqualsAndHashCode.Exclude // changes on flush, while the category may sit in a hashed collection
+    @Schema(description = "Version of the category, incremented on every update", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // One-to-Many relationship with Product
     // mappedBy points to the 'category' field in the Product entity
     // cascade = CascadeType.ALL means if a category is deleted, its products are also deleted (optional, be careful)
     // orphanRemoval = true means if a product is removed from this set, it's deleted from DB (optional, be careful)
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Lazy: loading every product of a category is opt-in through the "Category.withProducts" entity graph
+    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
+    @EqualsAndHashCode.Exclude // hashing must not initialize the collection
     @JsonIgnoreProperties("category")
     @Schema(description = "Products belonging to this category")
     private Set<Product> products = new HashSet<>(); // Using Set to ensure uniqueness and avoid duplicates
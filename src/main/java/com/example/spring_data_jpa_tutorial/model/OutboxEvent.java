@@ -0,0 +1,96 @@
+package com.example.spring_data_jpa_tutorial.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+// Change of a product or category, written in the same transaction as the change itself (transactional outbox).
+// OutboxRelay gives committed events their change feed position, then hands them to the OutboxSink; the change
+// feed does not wait for the sink.
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_published_at", columnList = "published_at"),
+        @Index(name = "idx_outbox_event_feed_position", columnList = "feed_position", unique = true)
+})
+@Data
+@Schema(description = "Change of a product or category")
+public class OutboxEvent {
+
+    public enum AggregateType { PRODUCT, CATEGORY }
+
+    // Bulk changes are reported per category (PRODUCTS_DELETED, PRODUCT_PRICES_ADJUSTED), so their event count
+    // does not grow with the number of affected products
+    public enum EventType { CREATED, UPDATED, PRODUCTS_DELETED, PRODUCT_PRICES_ADJUSTED }
+
+    // Pooled like the other ids, so the events of an import are batched. Taken before commit, so ids are not
+    // in commit order and the change feed uses feedPosition instead.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    @Schema(description = "ID of the event, for deduplication", example = "42")
+    private Long id;
+
+    // Assigned by the relay, which only sees committed events: a position is never handed out while an event
+    // that should come before it is still uncommitted. Null until the relay has seen the event.
+    @Column(name = "feed_position")
+    @Schema(description = "Position in the change feed, the value to pass as 'since'", example = "17")
+    private Long feedPosition;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Schema(description = "Kind of the changed resource", example = "PRODUCT")
+    private AggregateType aggregateType;
+
+    @Column(nullable = false)
+    @Schema(description = "ID of the changed product or category", example = "1")
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    @Schema(description = "What happened", example = "UPDATED")
+    private EventType eventType;
+
+    @Column(nullable = false)
+    @Schema(description = "When the change was made")
+    private Instant occurredAt;
+
+    // JSON of the resource after the change as the API returns it; details of the change for category-level events
+    @Lob
+    @JsonRawValue
+    @Schema(description = "Resource after the change, or details of a bulk change of the category's products")
+    private String payload;
+
+    // Set by the relay once the sink accepted the event
+    @JsonIgnore
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    // Failed deliveries to the sink; the relay retries after nextAttemptAt and gives up after
+    // app.outbox.relay.max-attempts (deadLetteredAt). The event stays in the change feed either way.
+    @JsonIgnore
+    @Column(name = "delivery_attempts", nullable = false)
+    private int deliveryAttempts;
+
+    @JsonIgnore
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @JsonIgnore
+    @Column(name = "dead_lettered_at")
+    private Instant deadLetteredAt;
+
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(AggregateType aggregateType, Long aggregateId, EventType eventType, String payload) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.occurredAt = Instant.now();
+    }
+}
@@ -1,22 +1,39 @@
 package com.example.spring_data_jpa_tutorial.model;
 
+import com.example.spring_data_jpa_tutorial.config.CacheConfig;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 @Entity
-@Table(name = "products")
+@Cacheable // second-level cache, only active when app.cache.enabled=true
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PRODUCT_REGION)
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_price_id", columnList = "price, id"), // keyset pagination and price ranges
+        @Index(name = "idx_products_category_price", columnList = "category_id, price, id") // price ranges within a category
+})
 @Data
+@NamedEntityGraph(name = "Product.withCategory", attributeNodes = @NamedAttributeNode("category"))
+@Indexed(index = "products") // full-text index, updated by Hibernate Search when a transaction commits
 @Schema(description = "Product entity representing items for sale")
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY: ids are known before the INSERT, so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "products_seq", allocationSize = 50)
     @Schema(description = "Unique identifier of the product", example = "1")
     private Long id;
 
     @Column(nullable = false, unique = true)
+    @FullTextField
     @Schema(description = "Name of the product", example = "Smartphone", required = true)
     private String name;
 
@@ -24,11 +41,21 @@ public class Product {
     @Schema(description = "Price of the product", example = "699.99", required = true)
     private Double price;
 
+    @FullTextField
     @Schema(description = "Description of the product", example = "Latest model smartphone")
     private String description;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Optimistic locking; incremented by Hibernate on every update and exposed to clients through the ETag
+    @Version
+    @EqualsAndHashCode.Exclude // changes on flush, while the product may sit in a hashed collection
+    @Schema(description = "Version of the product, incremented on every update", example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
+    // Lazy: queries that return the category fetch it through the "Product.withCategory" entity graph
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
+    @EqualsAndHashCode.Exclude // hashing must not initialize the proxy
+    @IndexedEmbedded(includePaths = "description") // category description is searchable as "category.description"
     @JsonIgnoreProperties("products")
     @Schema(description = "Category to which the product belongs")
     private Category category;
@@ -52,7 +79,8 @@ public class Product {
                 ", name='" + name + '\'' +
                 ", price=" + price +
                 ", description='" + description + '\'' +
-                ", category=" + (category != null ? category.getName() : "null") + // Avoid fetching full category for toString
+                // The id of a lazy category is known without loading it; its name would initialize the proxy
+                ", categoryId=" + (category != null ? category.getId() : "null") +
                 '}';
     }
 }
\ No newline at end of file
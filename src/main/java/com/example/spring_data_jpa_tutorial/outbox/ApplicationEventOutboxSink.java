@@ -0,0 +1,26 @@
+package com.example.spring_data_jpa_tutorial.outbox;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+// Default sink: every event becomes a Spring application event, received with @EventListener(OutboxEvent)
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private static final Logger log = LoggerFactory.getLogger(ApplicationEventOutboxSink.class);
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ApplicationEventOutboxSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+        log.debug("Published {} outbox events up to id {}", events.size(), events.get(events.size() - 1).getId());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.spring_data_jpa_tutorial.outbox;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import com.example.spring_data_jpa_tutorial.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Relays committed outbox events in two independent steps, each batch in its own transaction:
+// 1. give the oldest events without one the next change feed positions; the change feed serves them from then on
+// 2. hand positioned events to the OutboxSink in feed order and mark them published.
+// Positions follow the order in which events became visible to the relay, i.e. commit order: an event committed
+// after a batch was read gets a position after that batch, whatever its id. Positions have no gaps.
+// A failing sink does not hold up the change feed. When a batch fails, its events are retried one by one to find
+// the failing one; that event is retried with exponential backoff, and delivery waits for it to keep the order.
+// After app.outbox.relay.max-attempts it is dead-lettered (logged, not delivered) and delivery moves on.
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxSink outboxSink;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    // Delay after the first failed delivery of an event, doubled with every further failure up to maxBackoff
+    @Value("${app.outbox.relay.backoff:PT1S}")
+    private Duration backoff;
+
+    @Value("${app.outbox.relay.max-backoff:PT5M}")
+    private Duration maxBackoff;
+
+    // How long events stay available to the change feed
+    @Value("${app.outbox.retention:7d}")
+    private Duration retention;
+
+    // Drains the backlog: batches follow each other until one comes back short
+    @Scheduled(fixedDelayString = "${app.outbox.relay.interval:PT1S}")
+    public void relay() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer count;
+        do {
+            count = transactionTemplate.execute(status -> assignFeedPositions());
+        } while (count != null && count == batchSize);
+        do {
+            count = transactionTemplate.execute(status -> deliverBatch());
+        } while (count != null && count == batchSize);
+    }
+
+    // Deletes the events that occurred before the retention period, but never the newest one (positions continue
+    // after it) and nothing from the first event the sink has not received yet
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval:PT1H}")
+    public void deleteExpiredEvents() {
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status -> {
+            Long last = outboxEventRepository.findMaxFeedPositionOccurredBefore(Instant.now().minus(retention));
+            Long newest = outboxEventRepository.findMaxFeedPosition();
+            Long firstUndelivered = outboxEventRepository.findMinUndeliveredFeedPosition();
+            if (last == null) {
+                return 0;
+            }
+            long position = Math.min(last, newest - 1);
+            if (firstUndelivered != null) {
+                position = Math.min(position, firstUndelivered - 1);
+            }
+            return position > 0 ? outboxEventRepository.deleteUpToFeedPosition(position) : 0;
+        });
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} outbox events older than {}", deleted, retention);
+        }
+    }
+
+    private int assignFeedPositions() {
+        List<OutboxEvent> batch = outboxEventRepository.findByFeedPositionIsNullOrderById(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Long lastPosition = outboxEventRepository.findMaxFeedPosition();
+        long position = lastPosition != null ? lastPosition : 0L;
+        for (OutboxEvent event : batch) {
+            event.setFeedPosition(++position);
+        }
+        // Positions are unique: a relay that raced this one fails here and its batch is retried
+        outboxEventRepository.flush();
+        return batch.size();
+    }
+
+    // Returns the number of events that left the queue (published or dead-lettered)
+    private int deliverBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.findUndelivered(Limit.of(batchSize));
+        if (batch.isEmpty() || isBackingOff(batch.get(0))) {
+            return 0;
+        }
+        try {
+            outboxSink.publish(batch);
+        } catch (RuntimeException e) {
+            return deliverOneByOne(batch);
+        }
+        Instant now = Instant.now();
+        batch.forEach(event -> event.setPublishedAt(now));
+        return batch.size();
+    }
+
+    private int deliverOneByOne(List<OutboxEvent> batch) {
+        int done = 0;
+        for (OutboxEvent event : batch) {
+            try {
+                outboxSink.publish(List.of(event));
+                event.setPublishedAt(Instant.now());
+            } catch (RuntimeException e) {
+                if (!deliveryFailed(event, e)) {
+                    return done; // later events wait for this one
+                }
+            }
+            done++;
+        }
+        return done;
+    }
+
+    // Records the failure; true when the relay gives up on the event
+    private boolean deliveryFailed(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getDeliveryAttempts() + 1;
+        event.setDeliveryAttempts(attempts);
+        if (attempts >= maxAttempts) {
+            event.setDeadLetteredAt(Instant.now());
+            log.error("Outbox event {} (feed position {}) dead-lettered after {} failed deliveries",
+                    event.getId(), event.getFeedPosition(), attempts, e);
+            return true;
+        }
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        event.setNextAttemptAt(Instant.now().plus(delay));
+        log.warn("Delivery of outbox event {} failed (attempt {}), retrying in {}", event.getId(), attempts, delay, e);
+        return false;
+    }
+
+    private static boolean isBackingOff(OutboxEvent event) {
+        return event.getNextAttemptAt() != null && event.getNextAttemptAt().isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.spring_data_jpa_tutorial.outbox;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+
+import java.util.List;
+
+// Destination of the relayed outbox events, e.g. a message broker. Define a bean of this type to replace the
+// in-process default (OutboxConfig). Delivery is at least once: events are sent again when publish throws or
+// the relay fails before marking them published, so consumers deduplicate by event id. An event that keeps
+// failing is dead-lettered after app.outbox.relay.max-attempts and never delivered (OutboxRelay).
+public interface OutboxSink {
+
+    // Events in feed position order; returns only once the batch is accepted
+    void publish(List<OutboxEvent> events);
+}
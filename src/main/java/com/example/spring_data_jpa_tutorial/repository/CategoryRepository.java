@@ -1,13 +1,61 @@
 package com.example.spring_data_jpa_tutorial.repository;
 
+import com.example.spring_data_jpa_tutorial.dto.CategoryPriceStatsView;
+import com.example.spring_data_jpa_tutorial.dto.VersionStampDTO;
 import com.example.spring_data_jpa_tutorial.model.Category;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+// Declared queries run in a read-only transaction, so read/write routing can send them to a replica
 @Repository
+@Transactional(readOnly = true)
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     Optional<Category> findByName(String name);
+
+    // --- Read modes (named entity graphs declared on Category) ---
+
+    // Categories without their products
+    @EntityGraph("Category.summary")
+    @Query("SELECT c FROM Category c")
+    List<Category> findAllSummaries();
+
+    // Categories with all their products, loaded by the same SELECT
+    @EntityGraph("Category.withProducts")
+    @Query("SELECT c FROM Category c")
+    List<Category> findAllWithProducts();
+
+    @EntityGraph("Category.withProducts")
+    @Query("SELECT c FROM Category c WHERE c.id = ?1")
+    Optional<Category> findWithProductsById(Long id);
+
+    // --- Version stamps (ETags), computed without loading the entities ---
+
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.VersionStampDTO(COUNT(c), COALESCE(MAX(c.id), 0L), " +
+           "COALESCE(SUM(c.id), 0L), COALESCE(SUM(c.version), 0L)) FROM Category c")
+    VersionStampDTO findVersionStampOfAll();
+
+    // Matches VersionStampDTO.ofCategoryWithProducts; empty when the category does not exist
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.VersionStampDTO(COUNT(p), COALESCE(MAX(p.id), 0L), " +
+           "COALESCE(SUM(p.id), 0L), COALESCE(SUM(p.version), 0L) + COALESCE(c.version, 0L)) " +
+           "FROM Category c LEFT JOIN c.products p WHERE c.id = ?1 GROUP BY c.id, c.version")
+    Optional<VersionStampDTO> findVersionStampWithProductsById(Long id);
+
+    // --- Price statistics (CategoryStatsService) ---
+
+    @Query("SELECT c.id AS categoryId, c.name AS categoryName, COUNT(p) AS productCount, SUM(p.price) AS priceSum, " +
+           "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice FROM Category c LEFT JOIN c.products p GROUP BY c.id, c.name")
+    List<CategoryPriceStatsView> findAllPriceStats();
+
+    @Query("SELECT c.id AS categoryId, c.name AS categoryName, COUNT(p) AS productCount, SUM(p.price) AS priceSum, " +
+           "MIN(p.price) AS minPrice, MAX(p.price) AS maxPrice FROM Category c LEFT JOIN c.products p " +
+           "WHERE c.id IN ?1 GROUP BY c.id, c.name")
+    List<CategoryPriceStatsView> findPriceStatsByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,47 @@
+package com.example.spring_data_jpa_tutorial.repository;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Change feed page: relayed events after the consumer's last position
+    @Query("SELECT e FROM OutboxEvent e WHERE e.feedPosition > ?1 ORDER BY e.feedPosition")
+    List<OutboxEvent> findChangesSince(Long since, Limit limit);
+
+    // Next events to give a feed position, oldest first. Locked, so a relay in another instance waits for them.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findByFeedPositionIsNullOrderById(Limit limit);
+
+    // Next events to hand to the sink, in feed order; locked like the above
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.deadLetteredAt IS NULL " +
+           "AND e.feedPosition IS NOT NULL ORDER BY e.feedPosition")
+    List<OutboxEvent> findUndelivered(Limit limit);
+
+    @Query("SELECT MAX(e.feedPosition) FROM OutboxEvent e")
+    Long findMaxFeedPosition();
+
+    // --- Retention: always a prefix of the feed, so a consumer can tell when it missed changes ---
+
+    @Query("SELECT MAX(e.feedPosition) FROM OutboxEvent e WHERE e.occurredAt < ?1")
+    Long findMaxFeedPositionOccurredBefore(Instant cutoff);
+
+    @Query("SELECT MIN(e.feedPosition) FROM OutboxEvent e WHERE e.publishedAt IS NULL AND e.deadLetteredAt IS NULL")
+    Long findMinUndeliveredFeedPosition();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.feedPosition <= :position")
+    int deleteUpToFeedPosition(@Param("position") long position);
+}
@@ -1,76 +1,264 @@
 package com.example.spring_data_jpa_tutorial.repository;
 
+import com.example.spring_data_jpa_tutorial.coalescing.Coalesced;
+import com.example.spring_data_jpa_tutorial.config.CacheConfig;
+import com.example.spring_data_jpa_tutorial.dto.ProductDetailsDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductPriceView;
+import com.example.spring_data_jpa_tutorial.dto.ProductRowView;
+import com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductSummaryView;
+import com.example.spring_data_jpa_tutorial.dto.VersionStampDTO;
 import com.example.spring_data_jpa_tutorial.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+// Product.category is lazy. Methods whose results are returned to clients opt into the
+// "Product.withCategory" entity graph, so the category comes with the same SELECT instead of one query per product.
+// Declared queries run in a read-only transaction (and on a replica when read/write routing is enabled);
+// without it Spring Data runs them outside any transaction. Inherited CRUD methods keep their own settings.
 @Repository
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
     // --- Derived Query Methods (as before) ---
     List<Product> findByName(String name);
+    @EntityGraph("Product.withCategory")
     List<Product> findByPriceGreaterThan(Double price);
     Optional<Product> findByNameAndPrice(String name, Double price);
+    @EntityGraph("Product.withCategory")
     List<Product> findByNameContainingIgnoreCase(String keyword);
+    @EntityGraph("Product.withCategory")
     List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
 
+    // Which of the given names are already taken (one set-based query instead of a findByName per product)
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
     // --- New Derived Query Methods involving Join ---
 
     // Find products by category name
     // Spring Data JPA intelligently creates a join based on the relationship
+    // Queries by category name are served from the query cache when the second-level cache is enabled
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
+    @EntityGraph("Product.withCategory")
     List<Product> findByCategoryName(String categoryName);
 
     // Find products by category ID
+    @EntityGraph("Product.withCategory")
     List<Product> findByCategoryId(Long categoryId);
 
     // --- Custom Queries using @Query Annotation (JPQL) ---
     // JPQL (Java Persistence Query Language) operates on entities and their fields, not table names and columns.
 
     // Get products with price less than X and specific category
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
+    @EntityGraph("Product.withCategory")
     @Query("SELECT p FROM Product p WHERE p.price < ?1 AND p.category.name = ?2")
     List<Product> findProductsWithPriceLessThanAndCategory(Double price, String categoryName);
 
     // Get product name and category name for all products (projection)
-    // Returns List of Object arrays, or a custom DTO
-    @Query("SELECT p.name, p.price, c.name FROM Product p JOIN p.category c WHERE c.name = ?1")
-    List<Object[]> findProductDetailsByCategoryName(String categoryName);
+    // Constructor expression: rows become ProductDetailsDTO directly, no entity is loaded
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductDetailsDTO(p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE c.name = ?1")
+    List<ProductDetailsDTO> findProductDetailsByCategoryName(String categoryName);
 
     // More complex query: Find products by part of name and category description
+    @EntityGraph("Product.withCategory")
     @Query("SELECT p FROM Product p JOIN p.category c WHERE p.name LIKE %?1% AND c.description LIKE %?2%")
     List<Product> findProductsByNamePartAndCategoryDescription(String productNamePart, String categoryDescPart);
 
     // Using Named Parameters (more readable than positional parameters like ?1, ?2)
+    @Coalesced
+    @EntityGraph("Product.withCategory")
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.category.id = :categoryId")
-    List<Product> findProductsInPriceRangeAndCategory(@org.springframework.data.repository.query.Param("minPrice") Double minPrice,
-                                                      @org.springframework.data.repository.query.Param("maxPrice") Double maxPrice,
-                                                      @org.springframework.data.repository.query.Param("categoryId") Long categoryId);
+    List<Product> findProductsInPriceRangeAndCategory(@Param("minPrice") Double minPrice,
+                                                      @Param("maxPrice") Double maxPrice,
+                                                      @Param("categoryId") Long categoryId);
 
     // Query to fetch Product and its Category in a single query (Eager fetching for specific query)
     // Using JOIN FETCH to explicitly fetch the associated category immediately
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id = ?1")
     Optional<Product> findByIdWithCategory(Long productId);
 
+    // Products by id in one SELECT with their category joined (ProductLookupService: batch lookups, ids found by PriceRangeIndex)
+    @EntityGraph("Product.withCategory")
+    List<Product> findAllWithCategoryByIdIn(Collection<Long> ids);
+
+    // --- Version stamps (ETags), computed without loading the entities ---
+
+    // Matches VersionStampDTO.ofProduct; empty when the product does not exist
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.VersionStampDTO(1L, p.id, c.id, " +
+           "COALESCE(p.version, 0L) + COALESCE(c.version, 0L)) FROM Product p JOIN p.category c WHERE p.id = ?1")
+    Optional<VersionStampDTO> findVersionStampById(Long id);
+
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.VersionStampDTO(COUNT(p), COALESCE(MAX(p.id), 0L), " +
+           "COALESCE(SUM(p.id), 0L), COALESCE(SUM(p.version), 0L)) FROM Product p")
+    VersionStampDTO findVersionStampOfAll();
+
     // Native SQL Query Example (use if JPQL is too restrictive or for database-specific features)
     @Query(value = "SELECT p.* FROM products p JOIN category c ON p.category_id = c.id WHERE c.name = ?1", 
            nativeQuery = true)
     List<Product> findProductsByCategoryNameNative(String categoryName);
 
     // Find products by category name with eager loading
+    // Backs GET /api/products/by-category-name. Concurrent identical calls share one execution when
+    // app.coalescing.enabled=true (see @Coalesced); the category is fetched, so the shared detached results are complete
+    @Coalesced
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
     @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.name = ?1")
     List<Product> findByCategoryNameWithCategory(String categoryName);
 
-    // Native SQL Query with explicit column selection returning Object[]
-    @Query(value = "SELECT p.id, p.name, p.price, p.description, p.category_id " +
-                   "FROM products p JOIN category c ON p.category_id = c.id WHERE c.name = ?1", 
+    // Native SQL Query with explicit column selection, mapped to an interface projection by column alias
+    @Query(value = "SELECT p.id AS id, p.name AS name, p.price AS price, p.description AS description, p.category_id AS categoryId " +
+                   "FROM products p JOIN category c ON p.category_id = c.id WHERE c.name = ?1",
            nativeQuery = true)
-    List<Object[]>  findProductsByCategoryNameNativeAsArray(String categoryName);
+    List<ProductRowView> findProductRowsByCategoryNameNative(String categoryName);
 
-    // Native SQL Query returning DTO
-    @Query(value = "SELECT p.id, p.name, p.price, c.name as category_name " +
-                   "FROM products p JOIN category c ON p.category_id = c.id WHERE c.name = ?1", 
+    // Native SQL Query returning a summary projection
+    @Query(value = "SELECT p.id AS id, p.name AS name, p.price AS price, c.name AS categoryName " +
+                   "FROM products p JOIN category c ON p.category_id = c.id WHERE c.name = ?1",
            nativeQuery = true)
-    List<Object[]> findProductSummaryByCategoryName(String categoryName);
+    List<ProductSummaryView> findProductSummaryByCategoryName(String categoryName);
+
+    // --- Summary projections (constructor expressions) ---
+    // Only id, name, price and category name are selected: no entity hydration, no persistence context entries,
+    // no dirty-checking snapshots. Used by the list endpoints when clients ask for summary=true.
+    @Coalesced
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE c.name = ?1")
+    List<ProductSummaryDTO> findSummariesByCategoryName(String categoryName);
+
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE c.id = ?1")
+    List<ProductSummaryDTO> findSummariesByCategoryId(Long categoryId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION)
+    })
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE p.price < ?1 AND c.name = ?2")
+    List<ProductSummaryDTO> findSummariesWithPriceLessThanAndCategory(Double price, String categoryName);
+
+    @Coalesced
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE p.price BETWEEN :minPrice AND :maxPrice AND c.id = :categoryId")
+    List<ProductSummaryDTO> findSummariesInPriceRangeAndCategory(@Param("minPrice") Double minPrice,
+                                                                @Param("maxPrice") Double maxPrice,
+                                                                @Param("categoryId") Long categoryId);
+
+    // --- Keyset (cursor) pagination ---
+    // Each page seeks past the last row of the previous page instead of using OFFSET,
+    // so page N costs the same as page 1 (backed by the primary key / idx_products_price_id).
+
+    // First page and following pages ordered by id
+    @EntityGraph("Product.withCategory")
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+    @EntityGraph("Product.withCategory")
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // First page and following pages ordered by price, id breaks ties between equal prices
+    @EntityGraph("Product.withCategory")
+    List<Product> findAllByOrderByPriceAscIdAsc(Limit limit);
+
+    @EntityGraph("Product.withCategory")
+    @Query("SELECT p FROM Product p WHERE p.price > :price OR (p.price = :price AND p.id > :id) ORDER BY p.price, p.id")
+    List<Product> findNextPageByPrice(@Param("price") Double price,
+                                      @Param("id") Long id,
+                                      Limit limit);
+
+    // Keyset pages of summaries after a given id, read page by page by the SSE stream of /api/async
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE p.id > ?1 ORDER BY p.id")
+    List<ProductSummaryDTO> findSummariesAfterId(Long id, Limit limit);
+
+    @Query("SELECT new com.example.spring_data_jpa_tutorial.dto.ProductSummaryDTO(p.id, p.name, p.price, c.name) " +
+           "FROM Product p JOIN p.category c WHERE c.name = ?1 AND p.id > ?2 ORDER BY p.id")
+    List<ProductSummaryDTO> findSummariesByCategoryNameAfterId(String categoryName, Long id, Limit limit);
+
+    // --- Streaming queries ---
+    // Rows are pulled from an open JDBC cursor while the caller consumes the Stream, so the caller
+    // must keep a transaction open and close the Stream. Loaded entities are read-only (no dirty-checking snapshots).
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.name = ?1 ORDER BY p.id")
+    Stream<Product> streamByCategoryName(String categoryName);
+
+    // Source of PriceRangeIndex: three columns per product, in index order
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.price AS price FROM Product p " +
+           "ORDER BY p.category.id, p.price, p.id")
+    Stream<ProductPriceView> streamPriceEntries();
+
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.price AS price FROM Product p " +
+           "WHERE p.category.id = ?1 ORDER BY p.price, p.id")
+    List<ProductPriceView> findPriceEntriesByCategoryId(Long categoryId);
+
+    // --- Bulk updates and deletes (used through ProductBulkService) ---
+    // One statement each, executed in the database without loading entities. Hibernate evicts the product
+    // cache region and invalidates cached queries; the persistence context is flushed before and cleared after.
+    // Versions are incremented explicitly, so ETags change and stale optimistic updates fail.
+    // Read-write (@Transactional), unlike the rest of the interface; callers run them in their own transaction anyway.
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.price = ROUND(p.price * :factor, 2), p.version = COALESCE(p.version, 0) + 1 " +
+           "WHERE p.category.id = :categoryId")
+    int adjustPricesByCategoryId(@Param("categoryId") Long categoryId,
+                                 @Param("factor") double factor);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("DELETE FROM Product p WHERE p.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Products a bulk delete by id will remove, with their categories; empty when none of them exists
+    @Query("SELECT p.id AS id, p.category.id AS categoryId, p.price AS price FROM Product p WHERE p.id IN :ids")
+    List<ProductPriceView> findPriceEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = ?1")
+    List<Long> findIdsByCategoryId(Long categoryId);
 }
@@ -0,0 +1,48 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Single product and category writes. Each saves the change and its outbox event in one transaction,
+// so both commit or roll back together. Set-based writes are in ProductBulkService, imports in ProductImportService.
+@Service
+public class CatalogWriteService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Transactional
+    public Category createCategory(Category category) {
+        Category savedCategory = categoryRepository.save(category);
+        outboxService.categoryCreated(savedCategory);
+        return savedCategory;
+    }
+
+    // The product's category must exist
+    @Transactional
+    public Product createProduct(Product product) {
+        Product savedProduct = productRepository.saveAndFlush(product); // constraint violations surface here
+        outboxService.productCreated(savedProduct);
+        return savedProduct;
+    }
+
+    // Writes a product read earlier and changed by the caller; the @Version check fails when another
+    // transaction updated it in between. Flushed now, so the returned version and the outbox payload are the new ones.
+    @Transactional
+    public Product updateProduct(Product product) {
+        Product updatedProduct = productRepository.saveAndFlush(product);
+        outboxService.productUpdated(updatedProduct);
+        return updatedProduct;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.CategoryPriceStatsView;
+import com.example.spring_data_jpa_tutorial.dto.CategoryStatsDTO;
+import com.example.spring_data_jpa_tutorial.event.AfterCommitBatch;
+import com.example.spring_data_jpa_tutorial.event.CatalogChangeHandler;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Product count and min/avg/max price per category, kept in memory.
+// Built from one GROUP BY query; after every commit the categories it touched are recomputed together with the
+// same query restricted to them, and each result replaces the category's immutable entry.
+// Queries run without any lock. Every query takes a sequence number before it starts, and an entry is only
+// replaced by a result with a higher one: that result's query started after every change reported before it.
+@Service
+public class CategoryStatsService implements CatalogChangeHandler {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Deleted categories stay as entries without stats, so an older result in flight cannot bring them back
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Set when a change could not be applied; the next read rebuilds
+    private volatile boolean rebuildRequired = true;
+
+    private final AfterCommitBatch<Long> changedCategories = new AfterCommitBatch<>(this::recompute);
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    // One entry per category, sorted by name
+    public List<CategoryStatsDTO> getStats() {
+        if (rebuildRequired) {
+            rebuild();
+        }
+        return entries.values().stream()
+                .filter(Entry::exists)
+                .map(Entry::toDTO)
+                .sorted(Comparator.comparing(CategoryStatsDTO::getCategoryName))
+                .toList();
+    }
+
+    // Recomputes every entry from the database, e.g. after products were written with plain SQL
+    public int rebuild() {
+        rebuildRequired = false;
+        long started = sequence.incrementAndGet();
+        List<CategoryPriceStatsView> rows;
+        try {
+            rows = query(categoryRepository::findAllPriceStats);
+        } catch (RuntimeException e) {
+            rebuildRequired = true;
+            throw e;
+        }
+        Set<Long> deleted = new HashSet<>(entries.keySet());
+        for (CategoryPriceStatsView row : rows) {
+            install(Entry.of(started, row));
+            deleted.remove(row.getCategoryId());
+        }
+        deleted.forEach(categoryId -> install(Entry.deleted(started, categoryId)));
+        return rows.size();
+    }
+
+    // --- CatalogChangeHandler ---
+
+    @Override
+    public void productInserted(Long productId, Long categoryId, Double price) {
+        changedCategories.add(categoryId);
+    }
+
+    @Override
+    public void productUpdated(Long productId, Long oldCategoryId, Double oldPrice, Long newCategoryId, Double newPrice) {
+        if (oldCategoryId == null) {
+            rebuildRequired = true; // previous category unknown
+        } else if (oldCategoryId.equals(newCategoryId) && oldPrice != null && oldPrice.equals(newPrice)) {
+            return; // name or description change
+        } else {
+            changedCategories.add(oldCategoryId);
+        }
+        changedCategories.add(newCategoryId);
+    }
+
+    @Override
+    public void productDeleted(Long productId, Long categoryId, Double price) {
+        changedCategories.add(categoryId);
+    }
+
+    @Override
+    public void categoryProductsChanged(Long categoryId) {
+        changedCategories.add(categoryId);
+    }
+
+    @Override
+    public void categorySaved(Long categoryId, String name) {
+        changedCategories.add(categoryId);
+    }
+
+    @Override
+    public void categoryDeleted(Long categoryId) {
+        changedCategories.add(categoryId);
+    }
+
+    // The categories changed by one commit, with one query
+    private void recompute(List<Long> changed) {
+        Set<Long> categoryIds = new HashSet<>(changed);
+        long started = sequence.incrementAndGet();
+        List<CategoryPriceStatsView> rows;
+        try {
+            rows = query(() -> categoryRepository.findPriceStatsByIdIn(categoryIds));
+        } catch (RuntimeException e) {
+            rebuildRequired = true;
+            throw e;
+        }
+        for (CategoryPriceStatsView row : rows) {
+            install(Entry.of(started, row));
+            categoryIds.remove(row.getCategoryId());
+        }
+        categoryIds.forEach(categoryId -> install(Entry.deleted(started, categoryId)));
+    }
+
+    private void install(Entry entry) {
+        entries.merge(entry.categoryId(), entry, (current, next) -> next.sequence() > current.sequence() ? next : current);
+    }
+
+    // In a new transaction on the primary: changes are reported after their transaction has committed,
+    // and a replica may not have them yet
+    private <T> T query(Supplier<T> query) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    // name is null for a deleted category
+    private record Entry(long sequence, Long categoryId, String name, long count, Double sum, Double min, Double max) {
+
+        static Entry of(long sequence, CategoryPriceStatsView row) {
+            return new Entry(sequence, row.getCategoryId(), row.getCategoryName(), row.getProductCount(),
+                    row.getPriceSum(), row.getMinPrice(), row.getMaxPrice());
+        }
+
+        static Entry deleted(long sequence, Long categoryId) {
+            return new Entry(sequence, categoryId, null, 0, null, null, null);
+        }
+
+        boolean exists() {
+            return name != null;
+        }
+
+        CategoryStatsDTO toDTO() {
+            return new CategoryStatsDTO(categoryId, name, count, min, count == 0 ? null : sum / count, max);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent.AggregateType;
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent.EventType;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Records catalog changes in the outbox. Callers must be in the transaction that makes the change,
+// so the event is committed or rolled back together with it.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void productCreated(Product product) {
+        outboxEventRepository.save(productEvent(product, EventType.CREATED));
+    }
+
+    public void productsCreated(Collection<Product> products) {
+        outboxEventRepository.saveAll(products.stream().map(product -> productEvent(product, EventType.CREATED)).toList());
+    }
+
+    // Call after the update was flushed, so the payload carries the new version
+    public void productUpdated(Product product) {
+        outboxEventRepository.save(productEvent(product, EventType.UPDATED));
+    }
+
+    // One event per category listing its deleted product ids
+    public void productsDeleted(Map<Long, List<Long>> productIdsByCategory) {
+        outboxEventRepository.saveAll(productIdsByCategory.entrySet().stream()
+                .map(entry -> new OutboxEvent(AggregateType.CATEGORY, entry.getKey(), EventType.PRODUCTS_DELETED,
+                        toJson(Map.of("productIds", entry.getValue(), "affectedRows", entry.getValue().size()))))
+                .toList());
+    }
+
+    // Every product of the category was deleted: one event without the ids
+    public void allProductsDeleted(Long categoryId, int affectedRows) {
+        outboxEventRepository.save(new OutboxEvent(AggregateType.CATEGORY, categoryId, EventType.PRODUCTS_DELETED,
+                toJson(Map.of("allProducts", true, "affectedRows", affectedRows))));
+    }
+
+    public void categoryCreated(Category category) {
+        outboxEventRepository.save(new OutboxEvent(AggregateType.CATEGORY, category.getId(), EventType.CREATED, toJson(category)));
+    }
+
+    // One event for the whole category instead of one per product: consumers reload the category's products
+    public void categoryPricesAdjusted(Long categoryId, double percent, int affectedRows) {
+        outboxEventRepository.save(new OutboxEvent(AggregateType.CATEGORY, categoryId, EventType.PRODUCT_PRICES_ADJUSTED,
+                toJson(Map.of("percent", percent, "affectedRows", affectedRows))));
+    }
+
+    private OutboxEvent productEvent(Product product, EventType eventType) {
+        return new OutboxEvent(AggregateType.PRODUCT, product.getId(), eventType, toJson(product));
+    }
+
+    // Same representation as the API responses (application ObjectMapper, lazy associations written as ids)
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.index.PriceRangeIndex;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Price range reads: matching ids come from PriceRangeIndex when it is enabled and loaded,
+// the products themselves from primary-key queries (ProductLookupService). Otherwise the range query runs in the database.
+@Service
+public class PriceRangeQueryService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductLookupService productLookupService;
+
+    @Autowired
+    private ObjectProvider<PriceRangeIndex> priceRangeIndex;
+
+    // Above this many matches the range scan in the database is cheaper than a long IN list
+    @Value("${app.price-index.max-results:1000}")
+    private int maxIndexedResults;
+
+    public List<Product> findByPriceBetween(Double minPrice, Double maxPrice) {
+        PriceRangeIndex index = priceRangeIndex.getIfAvailable();
+        long[] ids = index != null ? index.findIdsInRange(minPrice, maxPrice, maxIndexedResults) : null;
+        return ids != null ? loadInOrder(ids) : productRepository.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    public List<Product> findByPriceGreaterThan(Double price) {
+        PriceRangeIndex index = priceRangeIndex.getIfAvailable();
+        long[] ids = index != null ? index.findIdsAbove(price, maxIndexedResults) : null;
+        return ids != null ? loadInOrder(ids) : productRepository.findByPriceGreaterThan(price);
+    }
+
+    public List<Product> findInPriceRangeAndCategory(Double minPrice, Double maxPrice, Long categoryId) {
+        PriceRangeIndex index = priceRangeIndex.getIfAvailable();
+        long[] ids = index != null ? index.findIdsInRange(categoryId, minPrice, maxPrice, maxIndexedResults) : null;
+        return ids != null ? loadInOrder(ids) : productRepository.findProductsInPriceRangeAndCategory(minPrice, maxPrice, categoryId);
+    }
+
+    // Keeps the index order (by price); ids deleted since the lookup are skipped
+    private List<Product> loadInOrder(long[] ids) {
+        return ids.length == 0 ? new ArrayList<>() : productLookupService.findAllInOrder(Arrays.stream(ids).boxed().toList());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductPriceView;
+import com.example.spring_data_jpa_tutorial.event.CatalogChangePublisher;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.work.SearchIndexingPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Set-based product changes: one UPDATE/DELETE statement instead of loading and saving entity by entity.
+// Bulk statements skip entity events, so this service keeps the derived data in step itself:
+// the full-text index is purged in the same transaction, category statistics and the price index
+// reload the affected categories after commit (CatalogChangePublisher). The change feed gets its outbox
+// events in the same transaction.
+// Deletes by id run one statement per chunk of ids, like ProductLookupService: padded IN lists of a whole
+// request (up to 10000 ids) would bind 16384 parameters.
+@Service
+public class ProductBulkService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CatalogChangePublisher catalogChangePublisher;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${app.lookup.chunk-size:512}")
+    private int chunkSize;
+
+    // Multiplies all prices of the category by (1 + percent / 100), rounded to cents.
+    // Prices are not part of the full-text index, so it needs no update.
+    @Transactional
+    public int adjustCategoryPrices(Long categoryId, double percent) {
+        int updated = productRepository.adjustPricesByCategoryId(categoryId, 1 + percent / 100);
+        if (updated > 0) {
+            outboxService.categoryPricesAdjusted(categoryId, percent, updated);
+            catalogChangePublisher.publishBulkChangeAfterCommit(List.of(categoryId));
+        }
+        return updated;
+    }
+
+    // Unknown ids are ignored; returns the number of deleted products
+    @Transactional
+    public int deleteProducts(Collection<Long> ids) {
+        List<ProductPriceView> existing = new ArrayList<>();
+        for (List<Long> chunk : chunks(List.copyOf(ids))) {
+            existing.addAll(productRepository.findPriceEntriesByIdIn(chunk));
+        }
+        if (existing.isEmpty()) {
+            return 0;
+        }
+        List<Long> existingIds = existing.stream().map(ProductPriceView::getId).toList();
+        Map<Long, List<Long>> idsByCategory = existing.stream().collect(Collectors.groupingBy(
+                ProductPriceView::getCategoryId, Collectors.mapping(ProductPriceView::getId, Collectors.toList())));
+        int deleted = deleteByIds(existingIds);
+        outboxService.productsDeleted(idsByCategory);
+        catalogChangePublisher.publishBulkChangeAfterCommit(idsByCategory.keySet());
+        return deleted;
+    }
+
+    // Deletes every product of the category, the category itself stays.
+    // Deleted by the ids read first, so exactly the products purged from the full-text index are deleted,
+    // even when another transaction adds one to the category in between.
+    @Transactional
+    public int deleteProductsOfCategory(Long categoryId) {
+        List<Long> ids = productRepository.findIdsByCategoryId(categoryId);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = deleteByIds(ids);
+        outboxService.allProductsDeleted(categoryId, deleted);
+        catalogChangePublisher.publishBulkChangeAfterCommit(List.of(categoryId));
+        return deleted;
+    }
+
+    // Deletes the products and purges them from the full-text index
+    private int deleteByIds(List<Long> ids) {
+        int deleted = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            deleted += productRepository.deleteAllByIdIn(chunk);
+        }
+        purgeFromSearchIndex(ids);
+        return deleted;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            chunks.add(ids.subList(start, Math.min(start + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    // Applied by Hibernate Search when this transaction commits, discarded on rollback
+    private void purgeFromSearchIndex(Collection<Long> ids) {
+        SearchIndexingPlan indexingPlan = Search.session(entityManager).indexingPlan();
+        for (Long id : ids) {
+            indexingPlan.purge(Product.class, id, null);
+        }
+    }
+}
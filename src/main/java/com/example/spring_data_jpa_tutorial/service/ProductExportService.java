@@ -0,0 +1,55 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ProductExportService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Number of rows written between persistence context clears
+    @Value("${app.export.clear-interval:500}")
+    private int clearInterval;
+
+    // Writes products as NDJSON (one JSON document per line).
+    // Memory stays constant: rows come from a JDBC cursor and the persistence context is cleared
+    // every clearInterval rows, so already written entities can be garbage collected.
+    @Transactional(readOnly = true)
+    public long exportAsNdjson(String categoryName, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Product> products = categoryName == null
+                ? productRepository.streamAll()
+                : productRepository.streamByCategoryName(categoryName)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+                if (++count % clearInterval == 0) {
+                    out.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.BulkImportResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.BulkImportResultDTO.FailedChunk;
+import com.example.spring_data_jpa_tutorial.dto.BulkImportResultDTO.RejectedProduct;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ProductImportService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    // Products per transaction
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    // 0 would never advance through the products
+    @PostConstruct
+    void checkChunkSize() {
+        if (chunkSize < 1) {
+            throw new IllegalStateException("app.import.chunk-size must be positive, was " + chunkSize);
+        }
+    }
+
+    // Imports products chunk by chunk, each chunk in its own transaction.
+    // Per chunk: one query resolves all referenced categories, one query finds taken names,
+    // and the inserts go out as JDBC batches (see hibernate.jdbc.batch_size).
+    // A failing chunk ends the import: the result tells what was committed before it.
+    public BulkImportResultDTO importProducts(List<Product> products) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        Set<String> namesInRequest = new HashSet<>();
+
+        for (int start = 0; start < products.size(); start += chunkSize) {
+            List<Product> chunk = products.subList(start, Math.min(start + chunkSize, products.size()));
+            int offset = start;
+            List<RejectedProduct> rejected = new ArrayList<>();
+            try {
+                Integer imported = transactionTemplate.execute(
+                        status -> importChunk(chunk, offset, namesInRequest, rejected));
+                result.setImported(result.getImported() + (imported != null ? imported : 0));
+                result.getRejected().addAll(rejected);
+            } catch (RuntimeException e) {
+                result.setFailedChunk(new FailedChunk(start, start + chunk.size() - 1, e.getMessage()));
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private int importChunk(List<Product> chunk, int offset, Set<String> namesInRequest, List<RejectedProduct> rejected) {
+        Set<Long> categoryIds = chunk.stream()
+                .map(Product::getCategory)
+                .filter(Objects::nonNull)
+                .map(Category::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        Set<String> names = chunk.stream()
+                .map(Product::getName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existingNames = names.isEmpty() ? Set.of() : productRepository.findExistingNames(names);
+
+        List<Product> accepted = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Product product = chunk.get(i);
+            String error = validate(product, categories, existingNames, namesInRequest);
+            if (error != null) {
+                rejected.add(new RejectedProduct(offset + i, product.getName(), error));
+                continue;
+            }
+            product.setId(null);
+            product.setVersion(null); // new rows start at version 0
+            product.setCategory(categories.get(product.getCategory().getId()));
+            accepted.add(product);
+        }
+
+        productRepository.saveAll(accepted);
+        outboxService.productsCreated(accepted); // batched with the product inserts
+        // Send the batched INSERTs now and drop the chunk from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        return accepted.size();
+    }
+
+    private String validate(Product product, Map<Long, Category> categories, Set<String> existingNames, Set<String> namesInRequest) {
+        if (product.getName() == null || product.getPrice() == null) {
+            return "Name and price are required";
+        }
+        if (product.getCategory() == null || product.getCategory().getId() == null) {
+            return "Category must be provided with ID";
+        }
+        if (!categories.containsKey(product.getCategory().getId())) {
+            return "Category with ID " + product.getCategory().getId() + " does not exist";
+        }
+        if (existingNames.contains(product.getName()) || !namesInRequest.add(product.getName())) {
+            return "Product with name '" + product.getName() + "' already exists";
+        }
+        return null;
+    }
+}
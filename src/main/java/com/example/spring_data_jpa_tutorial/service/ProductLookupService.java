@@ -0,0 +1,75 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductLookupResultDTO;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// Loads products with their category by id: one SELECT ... IN per chunk of ids instead of one per id.
+// IN lists are padded to the next power of two (hibernate.query.in_clause_parameter_padding), so lookups of
+// different sizes share a few SQL strings and their cached statements and plans.
+@Service
+public class ProductLookupService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Ids per query; a power of two, so full chunks need no padding
+    @Value("${app.lookup.chunk-size:512}")
+    private int chunkSize;
+
+    // 0 would never advance through the ids; ProductBulkService chunks its deletes by the same setting
+    @PostConstruct
+    void checkChunkSize() {
+        if (chunkSize < 1) {
+            throw new IllegalStateException("app.lookup.chunk-size must be positive, was " + chunkSize);
+        }
+    }
+
+    // Products in the order of the ids, duplicates resolved once, plus the ids that were not found
+    @Transactional(readOnly = true)
+    public ProductLookupResultDTO lookup(Collection<Long> ids) {
+        LinkedHashSet<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, Product> byId = loadByIds(distinctIds);
+        List<Product> products = new ArrayList<>(byId.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Product product = byId.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductLookupResultDTO(products, missingIds);
+    }
+
+    // Products in the order of the ids; ids without a product (e.g. deleted meanwhile) are skipped
+    @Transactional(readOnly = true)
+    public List<Product> findAllInOrder(Collection<Long> ids) {
+        return lookup(ids).getProducts();
+    }
+
+    private Map<Long, Product> loadByIds(Collection<Long> distinctIds) {
+        Map<Long, Product> byId = new HashMap<>(distinctIds.size() * 2);
+        List<Long> idList = new ArrayList<>(distinctIds);
+        for (int start = 0; start < idList.size(); start += chunkSize) {
+            List<Long> chunk = idList.subList(start, Math.min(start + chunkSize, idList.size()));
+            for (Product product : productRepository.findAllWithCategoryByIdIn(chunk)) {
+                byId.put(product.getId(), product);
+            }
+        }
+        return byId;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchHitDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.SearchIndexStatusDTO;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.search.engine.search.common.BooleanOperator;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Full-text search over the Lucene index maintained by Hibernate Search.
+// The index is updated automatically when products or categories are written through JPA;
+// changes made with plain SQL are only picked up by rebuildIndex().
+@Service
+public class ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private static final String[] SEARCH_FIELDS = {"name", "description", "category.description"};
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Lucene keeps the top (page + 1) * size hits in memory to return one page
+    @Value("${app.search.max-result-window:10000}")
+    private int maxResultWindow;
+
+    // The running or last rebuild (guarded by this)
+    private CompletableFuture<Void> rebuild;
+    private Instant rebuildStartedAt;
+    private Instant rebuildFinishedAt;
+    private String rebuildError;
+
+    // Ranked search; every word of the query must match one of the indexed fields.
+    // IllegalArgumentException for a negative page, a size below 1, or a page beyond the result window.
+    @Transactional(readOnly = true)
+    public ProductSearchResultDTO search(String query, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new IllegalArgumentException("Page must be >= 0 and size >= 1");
+        }
+        long end = ((long) page + 1) * size; // long: page * size overflows int
+        if (end > maxResultWindow) {
+            throw new IllegalArgumentException("Only the first " + maxResultWindow + " results can be paged through");
+        }
+        SearchResult<ProductSearchHitDTO> result = Search.session(entityManager)
+                .search(Product.class)
+                .select(f -> f.composite()
+                        .from(f.entity(), f.score())
+                        .as(ProductSearchHitDTO::new))
+                .where(f -> f.simpleQueryString()
+                        .fields(SEARCH_FIELDS)
+                        .matching(query)
+                        .defaultOperator(BooleanOperator.AND))
+                // Matching products are loaded by id together with their category
+                .loading(o -> o.graph("Product.withCategory", GraphSemantic.FETCH))
+                .fetch((int) (end - size), size);
+        return new ProductSearchResultDTO(result.total().hitCount(), page, size, result.hits());
+    }
+
+    // Drops the index and rebuilds it from the database in the background. One rebuild at a time:
+    // IllegalStateException while another is running. The outcome is logged and kept for getIndexStatus().
+    public synchronized CompletableFuture<Void> rebuildIndex() {
+        if (rebuild != null && !rebuild.isDone()) {
+            throw new IllegalStateException("The search index is already being rebuilt");
+        }
+        rebuildStartedAt = Instant.now();
+        rebuildFinishedAt = null;
+        rebuildError = null;
+        log.info("Rebuilding the search index");
+        rebuild = Search.mapping(entityManagerFactory)
+                .scope(Product.class)
+                .massIndexer()
+                .start()
+                .toCompletableFuture()
+                .thenRun(() -> log.info("Search index rebuilt"))
+                .whenComplete((result, failure) -> rebuildFinished(failure));
+        return rebuild;
+    }
+
+    public synchronized SearchIndexStatusDTO getIndexStatus() {
+        return new SearchIndexStatusDTO(rebuild != null && !rebuild.isDone(), rebuildStartedAt, rebuildFinishedAt, rebuildError);
+    }
+
+    private synchronized void rebuildFinished(Throwable failure) {
+        rebuildFinishedAt = Instant.now();
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            rebuildError = cause.toString();
+            log.error("Rebuilding the search index failed", failure);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+-- Schema for spring.jpa.hibernate.ddl-auto=none (startup profile), same tables, sequences and indexes as the entities
+CREATE SEQUENCE IF NOT EXISTS category_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS outbox_event_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS category (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    version BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_category_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    price FLOAT(53) NOT NULL,
+    description VARCHAR(255),
+    version BIGINT,
+    category_id BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_products_name UNIQUE (name),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES category (id)
+);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+CREATE INDEX IF NOT EXISTS idx_products_category_price ON products (category_id, price, id);
+
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGINT NOT NULL,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    occurred_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    payload CLOB,
+    published_at TIMESTAMP(6) WITH TIME ZONE,
+    feed_position BIGINT,
+    delivery_attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) WITH TIME ZONE,
+    dead_lettered_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_outbox_event_published_at ON outbox_event (published_at);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_outbox_event_feed_position ON outbox_event (feed_position);
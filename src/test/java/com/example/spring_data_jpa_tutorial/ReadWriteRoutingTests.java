@@ -0,0 +1,105 @@
+package com.example.spring_data_jpa_tutorial;
+
+import com.example.spring_data_jpa_tutorial.datasource.ReadWriteRoutingDataSource;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The replicas are a separate in-memory H2 database with rows the primary does not have, so a query
+// that returns them provably ran on a replica. Both replica pools point at that database.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+		"spring.jpa.open-in-view=false",
+		"app.datasource.routing.enabled=true",
+		"app.datasource.replica-urls=" + ReadWriteRoutingTests.REPLICA_URL + "," + ReadWriteRoutingTests.REPLICA_URL
+})
+class ReadWriteRoutingTests {
+
+	static final String REPLICA_URL =
+			"jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:db/schema.sql'";
+
+	private static final long REPLICA_ID = 900_000L;
+	private static final String REPLICA_CATEGORY = "Replica Only";
+
+	@Autowired
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	// Written straight into the replica database, past the application's pools
+	@BeforeEach
+	void seedReplica() {
+		JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+		replica.update("MERGE INTO category (id, name, description, version) KEY (id) VALUES (?, ?, 'Replica data', 0)",
+				REPLICA_ID, REPLICA_CATEGORY);
+		replica.update("MERGE INTO products (id, name, price, description, category_id, version) KEY (id) " +
+				"VALUES (?, 'Replica Product', 10.0, 'Replica data', ?, 0)", REPLICA_ID, REPLICA_ID);
+	}
+
+	// Declared query methods, which the controllers use, not only the inherited CRUD methods
+	@Test
+	void declaredQueriesReadFromReplicas() {
+		List<Product> byCategory = productRepository.findByCategoryNameWithCategory(REPLICA_CATEGORY);
+		assertThat(byCategory).extracting(Product::getId).containsExactly(REPLICA_ID);
+		assertThat(byCategory.get(0).getCategory().getName()).isEqualTo(REPLICA_CATEGORY);
+
+		assertThat(productRepository.findByIdWithCategory(REPLICA_ID)).isPresent();
+		assertThat(productRepository.findSummariesByCategoryName(REPLICA_CATEGORY)).hasSize(1);
+		assertThat(productRepository.findSummariesAfterId(REPLICA_ID - 1, Limit.of(10))).hasSize(1);
+		assertThat(productRepository.findProductsInPriceRangeAndCategory(1.0, 100.0, REPLICA_ID)).hasSize(1);
+		assertThat(categoryRepository.findWithProductsById(REPLICA_ID)).hasValueSatisfying(
+				category -> assertThat(category.getProducts()).hasSize(1));
+		assertThat(categoryRepository.findByName(REPLICA_CATEGORY)).isPresent();
+	}
+
+	@Test
+	void readOnlyRepositoryCallsAreSpreadOverReplicas() {
+		long replica1 = routingDataSource.getRoutedConnections("replica-1");
+		long replica2 = routingDataSource.getRoutedConnections("replica-2");
+
+		for (int i = 0; i < 10; i++) {
+			productRepository.findAll();
+		}
+
+		long replica1Reads = routingDataSource.getRoutedConnections("replica-1") - replica1;
+		long replica2Reads = routingDataSource.getRoutedConnections("replica-2") - replica2;
+		assertThat(replica1Reads + replica2Reads).isGreaterThanOrEqualTo(10);
+		assertThat(replica1Reads).isPositive();
+		assertThat(replica2Reads).isPositive();
+	}
+
+	@Test
+	void writesGoToPrimary() {
+		long primary = routingDataSource.getRoutedConnections(ReadWriteRoutingDataSource.PRIMARY);
+
+		categoryRepository.save(new Category("Routing", "Written through the primary pool"));
+
+		assertThat(routingDataSource.getRoutedConnections(ReadWriteRoutingDataSource.PRIMARY)).isGreaterThan(primary);
+		// Reads go to the replica database, which never received the write
+		assertThat(categoryRepository.findByName("Routing")).isEmpty();
+	}
+
+	@Test
+	void healthCheckKeepsReachableReplicasInRotation() {
+		routingDataSource.checkReplicas();
+
+		assertThat(routingDataSource.isHealthy("replica-1")).isTrue();
+		assertThat(routingDataSource.isHealthy("replica-2")).isTrue();
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.spring_data_jpa_tutorial;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// db/schema.sql is written by hand for the startup profile (ddl-auto=none). Here it creates the database and
+// Hibernate validates it against the entities, so the context fails to start when they drift apart.
+// Validation does not cover indexes, the ones the entities declare are compared separately.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:schema;DB_CLOSE_DELAY=-1",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.sql.init.mode=always",
+		"spring.sql.init.schema-locations=classpath:db/schema.sql"
+})
+class SchemaScriptTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void entitiesValidateAgainstTheScript() {
+		assertThat(entityManagerFactory.getMetamodel().getEntities()).isNotEmpty();
+	}
+
+	@Test
+	void declaredIndexesExistWithTheirColumns() {
+		for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+			Table table = entity.getJavaType().getAnnotation(Table.class);
+			if (table == null) {
+				continue;
+			}
+			for (Index index : table.indexes()) {
+				List<String> columns = jdbcTemplate.queryForList(
+						"SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+						"WHERE TABLE_NAME = ? AND INDEX_NAME = ? ORDER BY ORDINAL_POSITION",
+						String.class, table.name().toUpperCase(), index.name().toUpperCase());
+				assertThat(columns).as("columns of index %s", index.name())
+						.containsExactlyElementsOf(Arrays.stream(index.columnList().split(","))
+								.map(column -> column.trim().toUpperCase())
+								.toList());
+
+				String type = jdbcTemplate.queryForObject(
+						"SELECT INDEX_TYPE_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = ? AND INDEX_NAME = ?",
+						String.class, table.name().toUpperCase(), index.name().toUpperCase());
+				assertThat(type).as("type of index %s", index.name()).isEqualTo(index.unique() ? "UNIQUE INDEX" : "INDEX");
+			}
+		}
+	}
+}
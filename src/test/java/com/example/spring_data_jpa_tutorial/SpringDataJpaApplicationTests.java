@@ -1,13 +1,31 @@
 package com.example.spring_data_jpa_tutorial;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 class SpringDataJpaApplicationTests {
 
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// app.cache.enabled=false by default: no unbounded regions created on the fly by the JCache region factory
+	@Test
+	void secondLevelCacheIsOffByDefault() {
+		SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+		assertThat(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()).isFalse();
+		assertThat(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()).isFalse();
+		assertThat(sessionFactory.getCache().getRegionFactory()).isInstanceOf(NoCachingRegionFactory.class);
+	}
 }
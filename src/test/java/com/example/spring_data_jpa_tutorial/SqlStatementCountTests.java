@@ -0,0 +1,253 @@
+package com.example.spring_data_jpa_tutorial;
+
+import com.example.spring_data_jpa_tutorial.metrics.SqlMetricsFilter;
+import com.example.spring_data_jpa_tutorial.metrics.SqlStatementRecorder;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// SQL statement budgets per ProductController endpoint, counted with Hibernate statistics over the whole
+// request (including JSON serialization, which is where lazy loading would add statements).
+// Every test runs against a small and a large catalog: a budget that only holds for the small one is an N+1.
+// Endpoints that load no entities get a budget of JDBC rows instead (app.sql.count-rows), so a projection
+// cannot read the whole table and filter it in Java.
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"app.sql.count-rows=true",
+		"app.coalescing.enabled=false", // every request must run its own queries
+		"app.price-index.enabled=false",
+		"app.outbox.relay.enabled=false" // the relay would run its queries in the middle of a request
+})
+@AutoConfigureMockMvc
+class SqlStatementCountTests {
+
+	private static final long ID_OFFSET = 1_000_000L;
+	private static final int CATEGORY_COUNT = 3;
+	private static final int EXPORT_CLEAR_INTERVAL = 500; // app.export.clear-interval
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	// Entity bounds are derived from what a response holds: its products plus the categories they belong to.
+	// All categories and products in the database, the seeded ones and the DataLoader's
+	private long allCategories;
+	private long allProducts;
+	// Products in "Budget Category 0", the category the per-category endpoints are called with
+	private int categoryProducts;
+
+	@BeforeEach
+	void enableStatistics() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+	}
+
+	@ParameterizedTest(name = "{0} products")
+	@ValueSource(ints = {30, 600})
+	void categoryEndpoints(int productCount) throws Exception {
+		seedCatalog(productCount);
+		String eTag = mockMvc.perform(get("/api/categories/{id}", ID_OFFSET)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertBudget(get("/api/categories"), 1, CATEGORY_COUNT + 2);
+		// Every category with its products
+		assertBudget(get("/api/categories").param("includeProducts", "true"), 1, allCategories + allProducts);
+		assertBudget(get("/api/categories/{id}", ID_OFFSET), 1, 1 + categoryProducts);
+		assertBudget(get("/api/categories/{id}", ID_OFFSET).header(HttpHeaders.IF_NONE_MATCH, eTag), 1, 0, 1);
+		assertBudget(get("/api/categories/stats"), 1, 0, allCategories);
+		assertBudget(get("/api/changes").param("since", "0").param("limit", "100"), 1, 100);
+	}
+
+	@ParameterizedTest(name = "{0} products")
+	@ValueSource(ints = {30, 600})
+	void productReadEndpoints(int productCount) throws Exception {
+		seedCatalog(productCount);
+		String categoryName = "Budget Category 0";
+		String categoryId = String.valueOf(ID_OFFSET);
+		String eTag = mockMvc.perform(get("/api/products/{id}", ID_OFFSET)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		// A page of products (plus the extra row that tells whether another page follows), each with its category
+		MvcResult firstPage = assertBudget(get("/api/products").param("size", "20"), 1, 21 + allCategories);
+		String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+		assertBudget(get("/api/products").param("size", "20").param("cursor", cursor), 1, 21 + allCategories);
+		assertBudget(get("/api/products").param("size", "20").param("sortBy", "price"), 1, 21 + allCategories);
+		assertBudget(get("/api/products/{id}", ID_OFFSET), 1, 2);
+		assertBudget(get("/api/products/{id}", ID_OFFSET).header(HttpHeaders.IF_NONE_MATCH, eTag), 1, 0, 1);
+
+		// One query per 512 ids (app.lookup.chunk-size), whatever the number of products
+		List<String> ids = new ArrayList<>();
+		for (int i = productCount; i >= 0; i--) {
+			ids.add(String.valueOf(ID_OFFSET + i)); // the last one does not exist
+		}
+		MvcResult lookup = assertBudget(post("/api/products/lookup").contentType(MediaType.APPLICATION_JSON)
+				.content("[" + String.join(",", ids) + "]"), (productCount + 1 + 511) / 512, productCount + CATEGORY_COUNT);
+		// In request order across chunks
+		List<Integer> foundIds = new ArrayList<>();
+		for (int i = productCount - 1; i >= 0; i--) {
+			foundIds.add((int) (ID_OFFSET + i));
+		}
+		assertThat(JsonPath.<List<Integer>>read(lookup.getResponse().getContentAsString(), "$.products[*].id"))
+				.containsExactlyElementsOf(foundIds);
+		assertThat(JsonPath.<List<Integer>>read(lookup.getResponse().getContentAsString(), "$.missingIds"))
+				.containsExactly((int) (ID_OFFSET + productCount));
+
+		assertBudget(get("/api/products/by-category-name").param("categoryName", categoryName), 1, categoryProducts + 1);
+		assertBudget(get("/api/products/by-category-name").param("categoryName", categoryName).param("summary", "true"),
+				1, 0, categoryProducts);
+		assertBudget(get("/api/products/by-category-id/{id}", ID_OFFSET), 1, categoryProducts + 1);
+		assertBudget(get("/api/products/by-category-id/{id}", ID_OFFSET).param("summary", "true"), 1, 0, categoryProducts);
+		assertBudget(get("/api/products/filter-by-price-and-category")
+				.param("price", "300").param("categoryName", categoryName), 1, categoryProducts + 1);
+		assertBudget(get("/api/products/filter-by-price-and-category")
+				.param("price", "300").param("categoryName", categoryName).param("summary", "true"), 1, 0, categoryProducts);
+		assertBudget(get("/api/products/details-by-category-name").param("categoryName", categoryName), 1, 0, categoryProducts);
+		assertBudget(get("/api/products/search")
+				.param("productNamePart", "Budget").param("categoryDescPart", "Counted"), 1, productCount + CATEGORY_COUNT);
+		MvcResult fullText = assertBudget(get("/api/products/full-text-search").param("query", "budget"), 1, 20 + allCategories);
+		assertThat(JsonPath.<Integer>read(fullText.getResponse().getContentAsString(), "$.totalHits")).isEqualTo(productCount);
+		assertThat(JsonPath.<List<Object>>read(fullText.getResponse().getContentAsString(), "$.hits")).hasSize(20);
+		assertBudget(get("/api/products/price-range-and-category")
+				.param("minPrice", "1").param("maxPrice", "300").param("categoryId", categoryId), 1, categoryProducts + 1);
+		assertBudget(get("/api/products/price-range-and-category")
+				.param("minPrice", "1").param("maxPrice", "300").param("categoryId", categoryId).param("summary", "true"),
+				1, 0, categoryProducts);
+		assertBudget(get("/api/products/by-category-name-native").param("categoryName", categoryName), 1, 0, categoryProducts);
+		// The export clears the persistence context every EXPORT_CLEAR_INTERVAL rows, categories are then loaded again
+		assertBudget(get("/api/products/export").param("categoryName", categoryName), 1,
+				categoryProducts + (categoryProducts / EXPORT_CLEAR_INTERVAL + 1));
+		assertBudget(get("/api/products/export"), 1, allProducts + allCategories * (allProducts / EXPORT_CLEAR_INTERVAL + 1));
+
+		assertBudget(get("/api/async/products/{id}", ID_OFFSET), 1, 2);
+		assertBudget(get("/api/async/products/by-category-name").param("categoryName", categoryName), 1, 0, categoryProducts);
+		assertBudget(get("/api/async/products/price-range-and-category")
+				.param("minPrice", "1").param("maxPrice", "300").param("categoryId", categoryId), 1, categoryProducts + 1);
+		// One keyset query per 200 rows, no entities
+		assertBudget(get("/api/async/products/stream").param("categoryName", categoryName),
+				1 + productCount / 3 / 200, 0, categoryProducts);
+	}
+
+	@ParameterizedTest(name = "{0} products")
+	@ValueSource(ints = {30, 600})
+	void productWriteEndpoints(int productCount) throws Exception {
+		seedCatalog(productCount);
+
+		// Every write also inserts its outbox events; sequence calls only happen when a pooled block is used up.
+		// After commit, one statistics query recomputes the categories the transaction changed.
+		// findByName, category lookup, insert, outbox insert, and up to two sequence calls
+		assertBudget(post("/api/products").contentType(MediaType.APPLICATION_JSON)
+				.content(productJson("Budget Created", 5.0, ID_OFFSET)), 6, 2);
+		// findByIdWithCategory, update, outbox insert, sequence call
+		assertBudget(put("/api/products/{id}", ID_OFFSET).contentType(MediaType.APPLICATION_JSON)
+				.content(productJson("Budget Product 0 renamed", 6.0, null)), 5, 2);
+		// Bulk statements, outbox insert and sequence call
+		assertBudget(delete("/api/products/{id}", ID_OFFSET + 1), 5, 0);
+		assertBudget(post("/api/categories/{id}/price-adjustment", ID_OFFSET).param("percent", "10"), 4, 0);
+		assertBudget(delete("/api/products").param("ids", (ID_OFFSET + 2) + "," + (ID_OFFSET + 3) + "," + (ID_OFFSET + 4)), 5, 0);
+		assertBudget(delete("/api/categories/{id}/products", ID_OFFSET + 2), 5, 0);
+
+		// Per chunk: one category query, one name query, then batched sequence calls and inserts (products and outbox)
+		List<String> products = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			products.add(productJson("Budget Imported " + i, 1.0 + i, ID_OFFSET + i % CATEGORY_COUNT));
+		}
+		assertBudget(post("/api/products/bulk").contentType(MediaType.APPLICATION_JSON)
+				.content("[" + String.join(",", products) + "]"), 14, CATEGORY_COUNT);
+	}
+
+	// Runs the request and checks the statements Hibernate prepared and the entities it loaded
+	private MvcResult assertBudget(MockHttpServletRequestBuilder request, int maxStatements, long maxEntities) throws Exception {
+		return assertBudget(request, maxStatements, maxEntities, Long.MAX_VALUE);
+	}
+
+	// ... and the rows it read from result sets
+	private MvcResult assertBudget(MockHttpServletRequestBuilder request, int maxStatements, long maxEntities, long maxRows)
+			throws Exception {
+		statistics.clear();
+		MvcResult result = mockMvc.perform(request).andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			result = mockMvc.perform(asyncDispatch(result)).andReturn(); // streaming responses
+		}
+		String description = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+				+ (result.getRequest().getQueryString() != null ? "?" + result.getRequest().getQueryString() : "");
+
+		assertThat(result.getResponse().getStatus()).as("status of %s", description).isLessThan(400);
+		assertThat(statistics.getPrepareStatementCount()).as("SQL statements of %s", description)
+				.isLessThanOrEqualTo(maxStatements);
+		assertThat(statistics.getEntityLoadCount()).as("entities loaded by %s", description)
+				.isLessThanOrEqualTo(maxEntities);
+		SqlStatementRecorder.Recording recording =
+				(SqlStatementRecorder.Recording) result.getRequest().getAttribute(SqlMetricsFilter.RECORDING_ATTRIBUTE);
+		assertThat(recording.getRows()).as("JDBC rows read by %s", description).isLessThanOrEqualTo(maxRows);
+		return result;
+	}
+
+	// Replaces the previous test's catalog: CATEGORY_COUNT categories, product i in category i % CATEGORY_COUNT.
+	// Written with plain SQL so seeding does not show up in the statistics, which also bypasses Hibernate Search:
+	// the full-text index is rebuilt from the tables afterwards.
+	private void seedCatalog(int productCount) {
+		jdbcTemplate.update("DELETE FROM products WHERE name LIKE 'Budget %'");
+		jdbcTemplate.update("DELETE FROM category WHERE name LIKE 'Budget %'");
+
+		List<Object[]> categories = new ArrayList<>();
+		for (int c = 0; c < CATEGORY_COUNT; c++) {
+			categories.add(new Object[]{ID_OFFSET + c, "Budget Category " + c, "Counted category " + c});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO category (id, name, description, version) VALUES (?, ?, ?, 0)", categories);
+
+		List<Object[]> products = new ArrayList<>();
+		for (int i = 0; i < productCount; i++) {
+			products.add(new Object[]{ID_OFFSET + i, "Budget Product " + i, 1.0 + i, "Counted product " + i,
+					ID_OFFSET + i % CATEGORY_COUNT});
+		}
+		jdbcTemplate.batchUpdate(
+				"INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)", products);
+
+		try {
+			Search.mapping(entityManagerFactory).scope(Product.class).massIndexer().startAndWait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+
+		allCategories = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM category", Long.class);
+		allProducts = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+		categoryProducts = (productCount + CATEGORY_COUNT - 1) / CATEGORY_COUNT;
+	}
+
+	private static String productJson(String name, double price, Long categoryId) {
+		return "{\"name\":\"" + name + "\",\"price\":" + price + ",\"description\":\"Counted\""
+				+ (categoryId != null ? ",\"category\":{\"id\":" + categoryId + "}" : "") + "}";
+	}
+}
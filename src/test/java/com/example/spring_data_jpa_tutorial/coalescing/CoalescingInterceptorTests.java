@@ -0,0 +1,295 @@
+package com.example.spring_data_jpa_tutorial.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CoalescingInterceptorTests {
+
+	interface Repository {
+
+		@Coalesced
+		List<String> coalesced(String argument);
+
+		List<String> plain(String argument);
+	}
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void clearThreadResources() {
+		List.copyOf(TransactionSynchronizationManager.getResourceMap().keySet())
+				.forEach(TransactionSynchronizationManager::unbindResource);
+	}
+
+	@Test
+	void concurrentCallsShareOneExecution() throws Exception {
+		CoalescingInterceptor interceptor = interceptor(Duration.ZERO, null);
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		List<String> result = List.of("shared");
+		Invocation leaderCall = new Invocation("coalesced", "a", () -> {
+			executions.incrementAndGet();
+			started.countDown();
+			await(release);
+			return result;
+		});
+
+		CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> invoke(interceptor, leaderCall));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> invoke(interceptor,
+				new Invocation("coalesced", "a", () -> {
+					executions.incrementAndGet();
+					return List.of("own");
+				})));
+		// The follower registers as coalesced before it blocks on the leader's flight
+		while (count("coalesced") == 0) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		assertThat(leader.get(10, TimeUnit.SECONDS)).isSameAs(result);
+		assertThat(follower.get(10, TimeUnit.SECONDS)).isSameAs(result);
+		assertThat(executions).hasValue(1);
+		assertThat(count("executed")).isEqualTo(1);
+	}
+
+	@Test
+	void differentArgumentsAndUnannotatedMethodsRunTheirOwnQuery() throws Throwable {
+		CoalescingInterceptor interceptor = interceptor(Duration.ofMinutes(1), null);
+		AtomicInteger executions = new AtomicInteger();
+
+		interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		interceptor.invoke(new Invocation("coalesced", "b", () -> List.of(executions.incrementAndGet())));
+		interceptor.invoke(new Invocation("plain", "a", () -> List.of(executions.incrementAndGet())));
+		interceptor.invoke(new Invocation("plain", "a", () -> List.of(executions.incrementAndGet())));
+
+		assertThat(executions).hasValue(4);
+	}
+
+	@Test
+	void resultIsReusedWithinTheFreshnessWindowOnly() throws Throwable {
+		CoalescingInterceptor interceptor = interceptor(Duration.ofMillis(200), null);
+		AtomicInteger executions = new AtomicInteger();
+
+		Object first = interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		Object reused = interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		assertThat(reused).isSameAs(first);
+
+		Thread.sleep(250);
+		Object refreshed = interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		assertThat(refreshed).isEqualTo(List.of(2));
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void withoutFreshnessWindowSequentialCallsRunAgain() throws Throwable {
+		CoalescingInterceptor interceptor = interceptor(Duration.ZERO, null);
+		AtomicInteger executions = new AtomicInteger();
+
+		interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void failureReachesWaitingCallersAndLaterCallsRetry() throws Exception {
+		CoalescingInterceptor interceptor = interceptor(Duration.ofMinutes(1), null);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalStateException failure = new IllegalStateException("query failed");
+
+		CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> invoke(interceptor,
+				new Invocation("coalesced", "a", () -> {
+					started.countDown();
+					await(release);
+					throw failure;
+				})));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> invoke(interceptor,
+				new Invocation("coalesced", "a", () -> List.of("own"))));
+		while (count("coalesced") == 0) {
+			Thread.sleep(5);
+		}
+		release.countDown();
+
+		assertThatThrownBy(() -> leader.get(10, TimeUnit.SECONDS)).hasCause(failure);
+		assertThatThrownBy(() -> follower.get(10, TimeUnit.SECONDS)).hasCause(failure);
+
+		// The failed flight is not cached for the freshness window
+		Object retried = invoke(interceptor, new Invocation("coalesced", "a", () -> List.of("retried")));
+		assertThat(retried).isEqualTo(List.of("retried"));
+	}
+
+	@Test
+	void callsInsideATransactionAreNotCoalesced() throws Throwable {
+		CoalescingInterceptor interceptor = interceptor(Duration.ofMinutes(1), null);
+		AtomicInteger executions = new AtomicInteger();
+
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+			interceptor.invoke(new Invocation("coalesced", "a", () -> List.of(executions.incrementAndGet())));
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+		}
+
+		assertThat(executions).hasValue(2);
+	}
+
+	@Test
+	void leaderRunsWithoutTheCallersOpenInViewEntityManager() throws Throwable {
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		EntityManagerHolder openInView = new EntityManagerHolder(null);
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, openInView);
+		CoalescingInterceptor interceptor = interceptor(Duration.ZERO, entityManagerFactory);
+		AtomicReference<Object> boundDuringQuery = new AtomicReference<>(openInView);
+
+		interceptor.invoke(new Invocation("coalesced", "a", () -> {
+			boundDuringQuery.set(TransactionSynchronizationManager.getResource(entityManagerFactory));
+			return List.of();
+		}));
+
+		assertThat(boundDuringQuery.get()).isNull();
+		assertThat(TransactionSynchronizationManager.getResource(entityManagerFactory)).isSameAs(openInView);
+	}
+
+	@Test
+	void callersWaitForTheLeaderAtMostTheWaitTimeout() throws Exception {
+		CoalescingInterceptor interceptor = new CoalescingInterceptor(meterRegistry, "Repository", Duration.ZERO,
+				Duration.ofMillis(50), () -> null);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> invoke(interceptor,
+				new Invocation("coalesced", "a", () -> {
+					started.countDown();
+					await(release);
+					return List.of("slow");
+				})));
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+		try {
+			assertThatThrownBy(() -> interceptor.invoke(new Invocation("coalesced", "a", () -> List.of("own"))))
+					.isInstanceOf(QueryTimeoutException.class);
+			assertThat(count("timed-out")).isEqualTo(1);
+		} finally {
+			release.countDown();
+		}
+		assertThat(leader.get(10, TimeUnit.SECONDS)).isEqualTo(List.of("slow"));
+	}
+
+	@Test
+	void flightsAreDroppedAfterTheFreshnessWindow() throws Throwable {
+		CoalescingInterceptor interceptor = interceptor(Duration.ofMillis(20), null);
+		for (int i = 0; i < 100; i++) {
+			interceptor.invoke(new Invocation("coalesced", "argument " + i, List::of));
+		}
+		Map<?, ?> flights = (Map<?, ?>) ReflectionTestUtils.getField(interceptor, "flights");
+
+		// Without further calls
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!flights.isEmpty()) {
+			assertThat(System.nanoTime()).as("flights dropped").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private CoalescingInterceptor interceptor(Duration freshnessWindow, EntityManagerFactory entityManagerFactory) {
+		return new CoalescingInterceptor(meterRegistry, "Repository", freshnessWindow, Duration.ofSeconds(10),
+				() -> entityManagerFactory);
+	}
+
+	private double count(String outcome) {
+		return meterRegistry.find("repository.coalescing.calls").tag("outcome", outcome).counters().stream()
+				.mapToDouble(counter -> counter.count())
+				.sum();
+	}
+
+	private static Object invoke(CoalescingInterceptor interceptor, MethodInvocation invocation) {
+		try {
+			return interceptor.invoke(invocation);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Query {
+		Object run();
+	}
+
+	private static final class Invocation implements MethodInvocation {
+		private final Method method;
+		private final Object[] arguments;
+		private final Query query;
+
+		Invocation(String methodName, String argument, Query query) {
+			try {
+				this.method = Repository.class.getMethod(methodName, String.class);
+			} catch (NoSuchMethodException e) {
+				throw new IllegalArgumentException(e);
+			}
+			this.arguments = new Object[] { argument };
+			this.query = query;
+		}
+
+		@Override
+		public Method getMethod() {
+			return method;
+		}
+
+		@Override
+		public Object[] getArguments() {
+			return arguments;
+		}
+
+		@Override
+		public Object proceed() {
+			return query.run();
+		}
+
+		@Override
+		public Object getThis() {
+			return null;
+		}
+
+		@Override
+		public AccessibleObject getStaticPart() {
+			return method;
+		}
+	}
+}
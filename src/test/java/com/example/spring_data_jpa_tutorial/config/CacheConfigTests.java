@@ -0,0 +1,43 @@
+package com.example.spring_data_jpa_tutorial.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTests {
+
+	// Every application context creates the regions, even while another context's CacheManager is open
+	@Test
+	void contextsHaveTheirOwnCacheManager() {
+		try (CacheManager first = cacheManager(); CacheManager second = cacheManager()) {
+			assertThat(second).isNotSameAs(first);
+			first.getCache(CacheConfig.PRODUCT_REGION).put(1L, "first");
+
+			assertThat(second.getCacheNames()).contains(CacheConfig.CATEGORY_REGION, CacheConfig.PRODUCT_REGION,
+					CacheConfig.PRODUCT_BY_CATEGORY_NAME_REGION, CacheConfig.DEFAULT_QUERY_RESULTS_REGION,
+					CacheConfig.UPDATE_TIMESTAMPS_REGION);
+			assertThat(second.getCache(CacheConfig.PRODUCT_REGION).get(1L)).isNull();
+		}
+	}
+
+	@Test
+	void closedCacheManagerIsReplacedByAFreshOne() {
+		cacheManager().close();
+
+		try (CacheManager cacheManager = cacheManager()) {
+			assertThat(cacheManager.isClosed()).isFalse();
+			assertThat(cacheManager.getCache(CacheConfig.PRODUCT_REGION)).isNotNull();
+		}
+	}
+
+	private static CacheManager cacheManager() {
+		CacheConfig.Enabled configuration = new CacheConfig.Enabled();
+		ReflectionTestUtils.setField(configuration, "maxEntries", 100L);
+		ReflectionTestUtils.setField(configuration, "timeToLive", Duration.ofMinutes(1));
+		return configuration.hibernateCacheManager();
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.config.AsyncConfig;
+import com.example.spring_data_jpa_tutorial.service.PriceRangeQueryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:async;DB_CLOSE_DELAY=-1",
+		"app.async.pool-size=1",
+		"app.async.queue-capacity=0",
+		"app.async.query-timeout=1s"
+})
+@AutoConfigureMockMvc
+class AsyncProductControllerTests {
+
+	// Far more rows than can be summed in the timeout
+	private static final String SLOW_QUERY = "SELECT SUM(X) FROM SYSTEM_RANGE(1, 10000000000)";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	@Qualifier(AsyncConfig.PRODUCT_QUERY_EXECUTOR)
+	private ThreadPoolTaskExecutor queryExecutor;
+
+	@MockitoBean
+	private PriceRangeQueryService priceRangeQueryService;
+
+	@Test
+	void fullExecutorIsRejectedWith503() throws Exception {
+		awaitIdle(queryExecutor);
+		CountDownLatch release = new CountDownLatch(1);
+		queryExecutor.execute(() -> await(release)); // takes the only thread
+		try {
+			mockMvc.perform(get("/api/async/products/{id}", 1))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	void slowQueryAnswers504AndIsCancelled() throws Exception {
+		CompletableFuture<Throwable> queryOutcome = new CompletableFuture<>();
+		when(priceRangeQueryService.findInPriceRangeAndCategory(any(), any(), any())).thenAnswer(invocation -> {
+			try {
+				jdbcTemplate.queryForObject(SLOW_QUERY, Long.class);
+				queryOutcome.complete(null);
+			} catch (RuntimeException e) {
+				queryOutcome.complete(e);
+			}
+			return List.of();
+		});
+
+		MvcResult result = mockMvc.perform(get("/api/async/products/price-range-and-category")
+				.param("minPrice", "1").param("maxPrice", "2").param("categoryId", "1")).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isGatewayTimeout());
+
+		// The statement was cancelled at the timeout instead of holding the executor thread
+		assertThat(queryOutcome.get(10, TimeUnit.SECONDS)).isNotNull();
+		awaitIdle(queryExecutor);
+	}
+
+	@Test
+	void springMvcAsyncRequestsKeepTheApplicationTaskExecutor() {
+		assertThat(applicationContext.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME))
+				.isInstanceOf(ThreadPoolTaskExecutor.class);
+	}
+
+	private static void awaitIdle(ThreadPoolTaskExecutor executor) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (executor.getActiveCount() > 0) {
+			assertThat(System.nanoTime()).as("executor idle").isLessThan(deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
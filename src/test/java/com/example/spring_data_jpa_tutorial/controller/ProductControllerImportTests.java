@@ -0,0 +1,92 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Bulk imports commit chunk by chunk; the response tells how far an import got
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1",
+		"app.import.chunk-size=2",
+		"app.outbox.relay.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductControllerImportTests {
+
+	// products.description is VARCHAR(255) and not validated by the import, so the insert fails
+	private static final String TOO_LONG = "x".repeat(300);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category category;
+
+	@BeforeEach
+	void createCategory() {
+		jdbcTemplate.update("DELETE FROM products WHERE name LIKE 'Import %'");
+		jdbcTemplate.update("DELETE FROM category WHERE name LIKE 'Import %'");
+		category = categoryRepository.save(new Category("Import category", "Import test category"));
+	}
+
+	@Test
+	void completeImportReportsImportedAndRejected() throws Exception {
+		mockMvc.perform(post("/api/products/bulk").contentType(MediaType.APPLICATION_JSON).content(json(
+						product("Import 0", "ok"), product("Import 1", "ok"), product("Import 0", "duplicate"))))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported").value(2))
+				.andExpect(jsonPath("$.rejected[0].index").value(2))
+				.andExpect(jsonPath("$.failedChunk").value(nullValue()));
+	}
+
+	@Test
+	void failedChunkIsReportedWithWhatCommittedBeforeIt() throws Exception {
+		mockMvc.perform(post("/api/products/bulk").contentType(MediaType.APPLICATION_JSON).content(json(
+						product("Import 0", "ok"), product("Import 0", "duplicate"),
+						product("Import 2", "ok"), product("Import 3", TOO_LONG),
+						product("Import 4", "ok"))))
+				.andExpect(status().isInternalServerError())
+				.andExpect(jsonPath("$.imported").value(1))
+				.andExpect(jsonPath("$.rejected[0].index").value(1))
+				.andExpect(jsonPath("$.failedChunk.firstIndex").value(2))
+				.andExpect(jsonPath("$.failedChunk.lastIndex").value(3))
+				.andExpect(jsonPath("$.failedChunk.error").isNotEmpty());
+
+		// The first chunk stays, the failed one is rolled back and the rest is not attempted
+		assertThat(productRepository.findAll()).extracting(Product::getName)
+				.filteredOn(name -> name.startsWith("Import "))
+				.containsExactly("Import 0");
+	}
+
+	private String product(String name, String description) {
+		return "{\"name\":\"" + name + "\",\"price\":1.0,\"description\":\"" + description + "\",\"category\":{\"id\":"
+				+ category.getId() + "}}";
+	}
+
+	private static String json(String... products) {
+		return "[" + String.join(",", products) + "]";
+	}
+}
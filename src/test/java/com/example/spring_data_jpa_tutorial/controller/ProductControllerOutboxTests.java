@@ -0,0 +1,190 @@
+package com.example.spring_data_jpa_tutorial.controller;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.OutboxEventRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import com.example.spring_data_jpa_tutorial.service.OutboxService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every write endpoint records its outbox event in the transaction of the change: both commit, or neither does
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox-writes;DB_CLOSE_DELAY=-1",
+		"app.outbox.relay.enabled=false"
+})
+@AutoConfigureMockMvc
+class ProductControllerOutboxTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private OutboxService outboxService;
+
+	private Category category;
+	private Product product;
+	private long lastEventId;
+
+	@BeforeEach
+	void createProduct() {
+		jdbcTemplate.update("DELETE FROM products WHERE name LIKE 'Outbox %'");
+		jdbcTemplate.update("DELETE FROM category WHERE name LIKE 'Outbox %'");
+		category = categoryRepository.save(new Category("Outbox category", "Outbox test category"));
+		product = productRepository.save(new Product("Outbox product", 10.0, "Outbox test product", category));
+		lastEventId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM outbox_event", Long.class);
+	}
+
+	@Test
+	void createCategoryCommitsItsEvent() throws Exception {
+		String response = mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"Outbox created\",\"description\":\"Created\"}"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(events()).singleElement().satisfies(event -> {
+			assertThat(event.getEventType()).isEqualTo(OutboxEvent.EventType.CREATED);
+			assertThat(event.getAggregateId()).isEqualTo(JsonPath.<Number>read(response, "$.id").longValue());
+		});
+	}
+
+	@Test
+	void createCategoryRollsBackWithItsEvent() {
+		doAnswer(failAfterRecording()).when(spy()).categoryCreated(any());
+
+		assertThatThrownBy(() -> mockMvc.perform(post("/api/categories").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Outbox rolled back\",\"description\":\"Rolled back\"}")));
+
+		assertThat(categoryRepository.findAll()).extracting(Category::getName).doesNotContain("Outbox rolled back");
+		assertThat(events()).isEmpty();
+	}
+
+	@Test
+	void createProductCommitsItsEvent() throws Exception {
+		mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(productJson("Outbox created")))
+				.andExpect(status().isCreated());
+
+		Product created = productRepository.findByName("Outbox created").get(0);
+		assertThat(events()).extracting(OutboxEvent::getAggregateId).containsExactly(created.getId());
+	}
+
+	@Test
+	void createProductRollsBackWithItsEvent() throws Exception {
+		doAnswer(failAfterRecording()).when(spy()).productCreated(any());
+
+		mockMvc.perform(post("/api/products").contentType(MediaType.APPLICATION_JSON).content(productJson("Outbox rolled back")))
+				.andExpect(status().isInternalServerError());
+
+		assertThat(productRepository.findByName("Outbox rolled back")).isEmpty();
+		assertThat(events()).isEmpty();
+	}
+
+	@Test
+	void updateProductCommitsItsEvent() throws Exception {
+		mockMvc.perform(put("/api/products/{id}", product.getId()).contentType(MediaType.APPLICATION_JSON)
+						.content(productJson("Outbox updated")))
+				.andExpect(status().isOk());
+
+		assertThat(productRepository.findById(product.getId())).get().extracting(Product::getName).isEqualTo("Outbox updated");
+		assertThat(events()).singleElement().satisfies(event -> {
+			assertThat(event.getEventType()).isEqualTo(OutboxEvent.EventType.UPDATED);
+			assertThat(event.getAggregateId()).isEqualTo(product.getId());
+		});
+	}
+
+	@Test
+	void updateProductRollsBackWithItsEvent() {
+		doAnswer(failAfterRecording()).when(spy()).productUpdated(any());
+
+		assertThatThrownBy(() -> mockMvc.perform(put("/api/products/{id}", product.getId())
+				.contentType(MediaType.APPLICATION_JSON).content(productJson("Outbox rolled back"))));
+
+		Product unchanged = productRepository.findById(product.getId()).orElseThrow();
+		assertThat(unchanged.getName()).isEqualTo("Outbox product");
+		assertThat(unchanged.getVersion()).isEqualTo(product.getVersion());
+		assertThat(events()).isEmpty();
+	}
+
+	@Test
+	void deleteProductCommitsItsEvent() throws Exception {
+		mockMvc.perform(delete("/api/products/{id}", product.getId())).andExpect(status().isNoContent());
+
+		assertThat(productRepository.findById(product.getId())).isEmpty();
+		assertThat(events()).singleElement().satisfies(event -> {
+			assertThat(event.getEventType()).isEqualTo(OutboxEvent.EventType.PRODUCTS_DELETED);
+			assertThat(event.getAggregateId()).isEqualTo(category.getId());
+		});
+	}
+
+	@Test
+	void deleteProductRollsBackWithItsEvent() {
+		doAnswer(failAfterRecording()).when(spy()).productsDeleted(anyMap());
+
+		assertThatThrownBy(() -> mockMvc.perform(delete("/api/products/{id}", product.getId())));
+
+		assertThat(productRepository.findById(product.getId())).isPresent();
+		assertThat(events()).isEmpty();
+	}
+
+	// The spy sits behind the transactional proxy, stubbing through the proxy would need a transaction
+	private OutboxService spy() {
+		return AopTestUtils.getUltimateTargetObject(outboxService);
+	}
+
+	// Writes the event to the database, then fails the transaction
+	private Answer<Void> failAfterRecording() {
+		return invocation -> {
+			invocation.callRealMethod();
+			outboxEventRepository.flush();
+			throw new IllegalStateException("Failed after the outbox insert");
+		};
+	}
+
+	// Events recorded by the test
+	private List<OutboxEvent> events() {
+		return outboxEventRepository.findAll().stream()
+				.filter(event -> event.getId() > lastEventId)
+				.toList();
+	}
+
+	private String productJson(String name) {
+		return "{\"name\":\"" + name + "\",\"price\":12.0,\"description\":\"Outbox test product\",\"category\":{\"id\":"
+				+ category.getId() + "}}";
+	}
+}
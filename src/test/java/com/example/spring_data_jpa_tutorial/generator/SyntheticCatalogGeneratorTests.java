@@ -0,0 +1,88 @@
+package com.example.spring_data_jpa_tutorial.generator;
+
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:generate;DB_CLOSE_DELAY=-1",
+		"app.generator.categories=7",
+		"app.generator.products=500",
+		"app.generator.batch-size=64",
+		"app.generator.reindex-search=false",
+		"app.outbox.relay.enabled=false"
+})
+@ActiveProfiles("generate")
+class SyntheticCatalogGeneratorTests {
+
+	@Autowired
+	private SyntheticCatalogGenerator generator;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	// Category names are unique, so each run starts from an empty catalog; apart from the ids, both runs are equal
+	@Test
+	void sameSeedGeneratesTheSameCatalog() {
+		deleteCatalog();
+		generator.generate();
+		List<String> firstRun = catalog();
+		deleteCatalog();
+		generator.generate();
+
+		assertThat(firstRun).hasSize(7 + 500);
+		assertThat(catalog()).containsExactlyElementsOf(firstRun);
+	}
+
+	// The application's own inserts get ids above the generated rows
+	@Test
+	void sequencesRestartAboveTheGeneratedIds() {
+		long generatedCategories = maxId("category");
+		long generatedProducts = maxId("products");
+
+		Category category = categoryRepository.save(new Category("After generation", "Inserted through JPA"));
+		Product product = productRepository.save(new Product("After generation", 1.0, "Inserted through JPA", category));
+
+		assertThat(category.getId()).isGreaterThan(generatedCategories);
+		assertThat(product.getId()).isGreaterThan(generatedProducts);
+	}
+
+	private long maxId(String table) {
+		return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+	}
+
+	private void deleteCatalog() {
+		jdbcTemplate.update("DELETE FROM products");
+		jdbcTemplate.update("DELETE FROM category");
+	}
+
+	// Rows without their ids: product names end with the id, categories are numbered from the first one
+	private List<String> catalog() {
+		long firstCategoryId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM category", Long.class);
+		List<String> rows = new ArrayList<>(jdbcTemplate.query(
+				"SELECT name, description FROM category ORDER BY id",
+				(rs, rowNum) -> rs.getString("name") + "|" + rs.getString("description")));
+		rows.addAll(jdbcTemplate.query(
+				"SELECT name, price, description, category_id FROM products ORDER BY id",
+				(rs, rowNum) -> rs.getString("name").replaceFirst(" \\d+$", "") + "|" + rs.getDouble("price") + "|"
+						+ rs.getString("description") + "|" + (rs.getLong("category_id") - firstCategoryId)));
+		return rows;
+	}
+}
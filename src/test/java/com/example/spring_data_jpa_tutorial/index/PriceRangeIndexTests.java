@@ -0,0 +1,179 @@
+package com.example.spring_data_jpa_tutorial.index;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductPriceView;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PriceRangeIndexTests {
+
+	private static final long BOOKS = 1L;
+	private static final long GAMES = 2L;
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+
+	private final PriceRangeIndex index = new PriceRangeIndex();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(index, "productRepository", productRepository);
+		ReflectionTestUtils.setField(index, "transactionManager", mock(PlatformTransactionManager.class));
+		// Ordered like the query: category, price, id
+		when(productRepository.streamPriceEntries()).thenAnswer(invocation -> Stream.of(
+				entry(1, BOOKS, 10.0), entry(2, BOOKS, 20.0), entry(3, BOOKS, 30.0),
+				entry(4, GAMES, 15.0), entry(5, GAMES, 25.0)));
+	}
+
+	@Test
+	void notReadyBeforeTheFirstRebuild() {
+		assertThat(index.isReady()).isFalse();
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).isNull();
+		assertThat(index.findIdsInRange(0.0, 100.0, 100)).isNull();
+		assertThat(index.findIdsAbove(0.0, 100)).isNull();
+	}
+
+	@Test
+	void answersRangesAfterRebuild() {
+		index.rebuild();
+
+		assertThat(index.isReady()).isTrue();
+		assertThat(index.findIdsInRange(BOOKS, 10.0, 20.0, 100)).containsExactly(1, 2);
+		assertThat(index.findIdsInRange(GAMES, 30.0, 40.0, 100)).isEmpty();
+		assertThat(index.findIdsInRange(99L, 0.0, 100.0, 100)).isEmpty(); // unknown category
+		assertThat(index.findIdsInRange(15.0, 25.0, 100)).containsExactlyInAnyOrder(2, 4, 5);
+		assertThat(index.findIdsAbove(20.0, 100)).containsExactlyInAnyOrder(3, 5);
+	}
+
+	@Test
+	void fallsBackToSqlAboveMaxResults() {
+		index.rebuild();
+
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 3)).containsExactly(1, 2, 3);
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 2)).isNull();
+		assertThat(index.findIdsInRange(0.0, 100.0, 5)).hasSize(5);
+		assertThat(index.findIdsInRange(0.0, 100.0, 4)).isNull();
+		assertThat(index.findIdsAbove(10.0, 4)).hasSize(4);
+		assertThat(index.findIdsAbove(10.0, 3)).isNull();
+	}
+
+	@Test
+	void appliesInsertsUpdatesAndDeletes() {
+		index.rebuild();
+
+		index.productInserted(6L, BOOKS, 12.0);
+		assertThat(index.findIdsInRange(BOOKS, 10.0, 20.0, 100)).containsExactly(1, 6, 2);
+
+		index.productUpdated(1L, BOOKS, 10.0, BOOKS, 35.0);
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(6, 2, 3, 1);
+
+		index.productUpdated(2L, BOOKS, 20.0, GAMES, 20.0); // category move
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(6, 3, 1);
+		assertThat(index.findIdsInRange(GAMES, 0.0, 100.0, 100)).containsExactly(4, 2, 5);
+
+		index.productUpdated(3L, null, null, GAMES, 30.0); // old values unknown
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(6, 1);
+		assertThat(index.findIdsInRange(GAMES, 0.0, 100.0, 100)).containsExactly(4, 2, 5, 3);
+
+		index.productDeleted(6L, BOOKS, 12.0);
+		index.productDeleted(1L, BOOKS, 35.0);
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).isEmpty();
+	}
+
+	@Test
+	void changesReplayedAfterARebuildAreHarmless() {
+		index.rebuild();
+
+		index.productInserted(2L, BOOKS, 20.0); // already loaded
+		index.productDeleted(7L, BOOKS, 20.0); // never loaded
+
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void reloadsACategoryAfterABulkChange() {
+		index.rebuild();
+		when(productRepository.findPriceEntriesByCategoryId(BOOKS)).thenReturn(List.of(entry(3, BOOKS, 27.0)));
+		when(productRepository.findPriceEntriesByCategoryId(GAMES)).thenReturn(List.of());
+
+		index.categoryProductsChanged(BOOKS);
+		index.categoryProductsChanged(GAMES);
+
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(3);
+		assertThat(index.findIdsInRange(GAMES, 0.0, 100.0, 100)).isEmpty();
+	}
+
+	@Test
+	void changesOfOneCommitAreMergedAfterIt() {
+		index.rebuild();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.productInserted(6L, BOOKS, 12.0);
+			index.productUpdated(6L, BOOKS, 12.0, GAMES, 16.0);
+			index.productInserted(7L, BOOKS, 11.0);
+			index.productDeleted(7L, BOOKS, 11.0);
+			index.productUpdated(1L, BOOKS, 10.0, BOOKS, 40.0);
+			assertThat(index.findIdsInRange(0.0, 100.0, 100)).containsExactlyInAnyOrder(1, 2, 3, 4, 5); // not committed yet
+
+			TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+					TransactionSynchronization.STATUS_COMMITTED);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(2, 3, 1);
+		assertThat(index.findIdsInRange(GAMES, 0.0, 100.0, 100)).containsExactly(4, 6, 5);
+	}
+
+	@Test
+	void rolledBackChangesAreDropped() {
+		index.rebuild();
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.productInserted(6L, BOOKS, 12.0);
+			TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+					TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void changesAreNotBlockedByAReloadQuery() throws Exception {
+		index.rebuild();
+		Thread[] writer = new Thread[1];
+		when(productRepository.findPriceEntriesByCategoryId(BOOKS)).thenAnswer(invocation -> {
+			// Committed after the reload read its rows
+			writer[0] = Thread.ofPlatform().start(() -> index.productInserted(9L, BOOKS, 50.0));
+			writer[0].join(5000);
+			return List.of(entry(3, BOOKS, 27.0));
+		});
+
+		index.categoryProductsChanged(BOOKS);
+
+		assertThat(writer[0].isAlive()).isFalse();
+		assertThat(index.findIdsInRange(BOOKS, 0.0, 100.0, 100)).containsExactly(3, 9);
+	}
+
+	private static ProductPriceView entry(long id, long categoryId, double price) {
+		return new PriceEntry(id, categoryId, price);
+	}
+
+	private record PriceEntry(Long getId, Long getCategoryId, Double getPrice) implements ProductPriceView {
+	}
+}
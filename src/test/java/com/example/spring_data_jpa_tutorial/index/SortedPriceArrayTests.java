@@ -0,0 +1,89 @@
+package com.example.spring_data_jpa_tutorial.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedPriceArrayTests {
+
+	// (price, id): (10, 1) (20, 2) (20, 5) (30, 3)
+	private final SortedPriceArray prices = build(1, 10.0, 2, 20.0, 5, 20.0, 3, 30.0);
+
+	@Test
+	void rangesIncludeBothBoundsAndKeepPriceThenIdOrder() {
+		assertThat(prices.idsBetween(10.0, 30.0)).containsExactly(1, 2, 5, 3);
+		assertThat(prices.idsBetween(20.0, 20.0)).containsExactly(2, 5);
+		assertThat(prices.idsBetween(10.5, 29.5)).containsExactly(2, 5);
+		assertThat(prices.countBetween(20.0, 30.0)).isEqualTo(3);
+	}
+
+	@Test
+	void emptyAndInvertedRanges() {
+		assertThat(prices.idsBetween(0.0, 9.99)).isEmpty();
+		assertThat(prices.idsBetween(30.01, 100.0)).isEmpty();
+		assertThat(prices.idsBetween(30.0, 10.0)).isEmpty();
+		assertThat(prices.countBetween(30.0, 10.0)).isZero();
+		assertThat(SortedPriceArray.EMPTY.idsBetween(0.0, 100.0)).isEmpty();
+	}
+
+	@Test
+	void aboveExcludesTheBound() {
+		assertThat(prices.idsAbove(20.0)).containsExactly(3);
+		assertThat(prices.idsAbove(19.99)).containsExactly(2, 5, 3);
+		assertThat(prices.countAbove(30.0)).isZero();
+		assertThat(prices.countAbove(0.0)).isEqualTo(4);
+	}
+
+	@Test
+	void mergeKeepsOrderAndLeavesTheOriginalUnchanged() {
+		SortedPriceArray changed = prices.merge(Set.of(), Map.of(4L, 20.0, 0L, 5.0, 9L, 99.0));
+
+		assertThat(changed.idsBetween(0.0, 100.0)).containsExactly(0, 1, 2, 4, 5, 3, 9);
+		assertThat(prices.size()).isEqualTo(4);
+	}
+
+	@Test
+	void addedIdReplacesItsEntry() {
+		assertThat(prices.merge(Set.of(), Map.of(1L, 25.0)).idsBetween(0.0, 100.0)).containsExactly(2, 5, 1, 3);
+		// replayed change
+		assertThat(prices.merge(Set.of(), Map.of(2L, 20.0)).idsBetween(0.0, 100.0)).containsExactly(1, 2, 5, 3);
+	}
+
+	@Test
+	void removesAndAddsInOnePass() {
+		SortedPriceArray changed = prices.merge(Set.of(5L, 3L, 7L), Map.of(6L, 15.0, 8L, 30.0));
+
+		assertThat(changed.idsBetween(0.0, 100.0)).containsExactly(1, 6, 2, 8);
+		assertThat(changed.countBetween(10.0, 20.0)).isEqualTo(3);
+	}
+
+	@Test
+	void removingEverythingGivesTheEmptyArray() {
+		assertThat(prices.merge(Set.of(1L, 2L, 3L, 5L), Map.of())).isSameAs(SortedPriceArray.EMPTY);
+		assertThat(SortedPriceArray.EMPTY.merge(Set.of(1L), Map.of())).isSameAs(SortedPriceArray.EMPTY);
+	}
+
+	@Test
+	void builderGrowsPastItsInitialCapacity() {
+		SortedPriceArray.Builder builder = new SortedPriceArray.Builder();
+		for (int i = 0; i < 100; i++) {
+			builder.add(i, i);
+		}
+		SortedPriceArray built = builder.build();
+
+		assertThat(built.size()).isEqualTo(100);
+		assertThat(built.idsBetween(98.0, 1000.0)).containsExactly(98, 99);
+	}
+
+	// Pairs of id, price, already sorted by price and id
+	private static SortedPriceArray build(Object... idsAndPrices) {
+		SortedPriceArray.Builder builder = new SortedPriceArray.Builder();
+		for (int i = 0; i < idsAndPrices.length; i += 2) {
+			builder.add(((Integer) idsAndPrices[i]).longValue(), (Double) idsAndPrices[i + 1]);
+		}
+		return builder.build();
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.spring_data_jpa_tutorial.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sqlmetrics;DB_CLOSE_DELAY=-1",
+		"app.sql.slow-query-threshold=0ms", // every statement is slow
+		"app.sql.n-plus-one-threshold=2",
+		"app.lookup.chunk-size=1", // one query per looked up id
+		"app.coalescing.enabled=false"
+})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class SqlMetricsFilterTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void repeatedStatementsAreReportedAsNPlusOne() throws Exception {
+		String ids = productIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+		perform(post("/api/products/lookup").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"));
+
+		assertThat(nPlusOneCount("POST", "/api/products/lookup")).isEqualTo(1);
+	}
+
+	@Test
+	void distinctStatementsAreNotReportedAsNPlusOne() throws Exception {
+		perform(get("/api/products/{id}", productIds().get(0)));
+
+		assertThat(nPlusOneCount("GET", "/api/products/{id}")).isZero();
+	}
+
+	@Test
+	void statementsOfExecutorThreadsCountForTheirRequest() throws Exception {
+		// Runs on the product query executor
+		perform(get("/api/async/products/{id}", productIds().get(0)));
+		assertThat(statements("GET", "/api/async/products/{id}").max()).isGreaterThanOrEqualTo(1);
+
+		// Written by Spring MVC's task executor
+		perform(get("/api/products/export"));
+		assertThat(statements("GET", "/api/products/export").max()).isGreaterThanOrEqualTo(1);
+	}
+
+	@Test
+	void slowQueriesAreLoggedWithTheirParameters(CapturedOutput output) throws Exception {
+		Long id = productIds().get(0);
+		perform(get("/api/products/{id}", id));
+
+		assertThat(output).containsPattern("Slow query \\(\\d+ ms\\): select .+ parameters=\\[\\[" + id + "]]");
+	}
+
+	private void perform(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			result = mockMvc.perform(asyncDispatch(result)).andReturn();
+		}
+		assertThat(result.getResponse().getStatus()).isLessThan(400);
+	}
+
+	private List<Long> productIds() {
+		return jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id", Long.class);
+	}
+
+	private DistributionSummary statements(String method, String uri) {
+		return meterRegistry.get("http.server.requests.sql.statements").tags("method", method, "uri", uri).summary();
+	}
+
+	private double nPlusOneCount(String method, String uri) {
+		Counter counter = meterRegistry.find("http.server.requests.n-plus-one").tags("method", method, "uri", uri).counter();
+		return counter != null ? counter.count() : 0;
+	}
+}
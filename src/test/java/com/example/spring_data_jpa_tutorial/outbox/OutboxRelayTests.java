@@ -0,0 +1,162 @@
+package com.example.spring_data_jpa_tutorial.outbox;
+
+import com.example.spring_data_jpa_tutorial.model.OutboxEvent;
+import com.example.spring_data_jpa_tutorial.repository.OutboxEventRepository;
+import com.example.spring_data_jpa_tutorial.service.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+		"app.outbox.relay.interval=PT1H", // relayed by the test only
+		"app.outbox.relay.max-attempts=2",
+		"app.outbox.relay.backoff=PT0S"
+})
+@AutoConfigureMockMvc
+class OutboxRelayTests {
+
+	// Events of this category are rejected by the sink
+	private static final long POISON_CATEGORY = -99L;
+
+	@Autowired
+	private OutboxRelay outboxRelay;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoSpyBean
+	private OutboxSink outboxSink;
+
+	@Test
+	void eventCommittedLateIsServedAfterEarlierRelayedEvents() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		outboxRelay.relay();
+		long since = lastPosition();
+
+		// The slow transaction takes the lower id but commits after the fast one was relayed
+		CountDownLatch recorded = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+			outboxService.categoryPricesAdjusted(-1L, 5, 1);
+			outboxEventRepository.flush();
+			recorded.countDown();
+			await(commit);
+		}));
+		assertThat(recorded.await(10, TimeUnit.SECONDS)).isTrue();
+		transactionTemplate.executeWithoutResult(status -> outboxService.categoryPricesAdjusted(-2L, 5, 1));
+
+		outboxRelay.relay();
+		List<OutboxEvent> firstPage = outboxEventRepository.findChangesSince(since, Limit.of(100));
+		assertThat(firstPage).extracting(OutboxEvent::getAggregateId).containsExactly(-2L);
+
+		commit.countDown();
+		slow.get(10, TimeUnit.SECONDS);
+		outboxRelay.relay();
+		List<OutboxEvent> secondPage = outboxEventRepository.findChangesSince(firstPage.get(0).getFeedPosition(), Limit.of(100));
+		assertThat(secondPage).extracting(OutboxEvent::getAggregateId).containsExactly(-1L);
+		assertThat(secondPage.get(0).getId()).isLessThan(firstPage.get(0).getId());
+	}
+
+	@Test
+	void rejectedEventDoesNotHoldUpTheChangeFeed() {
+		doThrow(new IllegalStateException("rejected")).when(outboxSink).publish(argThat(events ->
+				events.stream().anyMatch(event -> event.getAggregateId() == POISON_CATEGORY)));
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		outboxRelay.relay();
+		long since = lastPosition();
+		transactionTemplate.executeWithoutResult(status -> outboxService.categoryPricesAdjusted(POISON_CATEGORY, 5, 1));
+		transactionTemplate.executeWithoutResult(status -> outboxService.categoryPricesAdjusted(-98L, 5, 1));
+
+		// Both are in the feed, the second waits for the first to be delivered
+		outboxRelay.relay();
+		assertThat(outboxEventRepository.findChangesSince(since, Limit.of(100)))
+				.extracting(OutboxEvent::getAggregateId).containsExactly(POISON_CATEGORY, -98L);
+		OutboxEvent poison = event(POISON_CATEGORY);
+		assertThat(poison.getDeliveryAttempts()).isEqualTo(1);
+		assertThat(poison.getNextAttemptAt()).isNotNull();
+		assertThat(event(-98L).getPublishedAt()).isNull();
+
+		// Second failure: dead-lettered, delivery moves on
+		outboxRelay.relay();
+		assertThat(event(POISON_CATEGORY).getDeadLetteredAt()).isNotNull();
+		assertThat(event(POISON_CATEGORY).getPublishedAt()).isNull();
+		assertThat(event(-98L).getPublishedAt()).isNotNull();
+	}
+
+	@Test
+	void expiredPositionsAreGone() throws Exception {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		for (long category = -10; category >= -12; category--) {
+			long aggregateId = category;
+			transactionTemplate.executeWithoutResult(status -> outboxService.categoryPricesAdjusted(aggregateId, 5, 1));
+		}
+		outboxRelay.relay();
+		long expired = event(-11L).getFeedPosition();
+		jdbcTemplate.update("UPDATE outbox_event SET occurred_at = ? WHERE feed_position <= ?",
+				Timestamp.from(Instant.now().minus(30, ChronoUnit.DAYS)), expired);
+
+		outboxRelay.deleteExpiredEvents();
+
+		mockMvc.perform(get("/api/changes").param("since", String.valueOf(expired - 1)))
+				.andExpect(status().isGone())
+				.andExpect(jsonPath("$.latestPosition").value(lastPosition()));
+		mockMvc.perform(get("/api/changes").param("since", String.valueOf(expired)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.changes[0].aggregateId").value(-12));
+	}
+
+	private OutboxEvent event(long aggregateId) {
+		return outboxEventRepository.findAll().stream()
+				.filter(event -> event.getAggregateId() == aggregateId)
+				.findFirst().orElseThrow();
+	}
+
+	private long lastPosition() {
+		Long position = outboxEventRepository.findMaxFeedPosition();
+		return position != null ? position : 0L;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.CategoryStatsDTO;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CategoryStatsServiceTests {
+
+	@Autowired
+	private CategoryStatsService categoryStatsService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Long> categoryIds = new ArrayList<>();
+
+	@AfterEach
+	void deleteTestData() {
+		categoryIds.forEach(id -> {
+			jdbcTemplate.update("DELETE FROM products WHERE category_id = ?", id);
+			jdbcTemplate.update("DELETE FROM category WHERE id = ?", id);
+		});
+		categoryStatsService.rebuild();
+	}
+
+	@Test
+	void committedProductChangesAreApplied() {
+		Category books = category("Stats books");
+		Category games = category("Stats games");
+		assertThat(stats(books)).contains(new CategoryStatsDTO(books.getId(), "Stats books", 0, null, null, null));
+
+		Product cheap = productRepository.save(new Product("Stats paperback", 10.0, null, books));
+		Product expensive = productRepository.save(new Product("Stats hardcover", 30.0, null, books));
+		assertThat(stats(books)).contains(new CategoryStatsDTO(books.getId(), "Stats books", 2, 10.0, 20.0, 30.0));
+
+		cheap.setPrice(20.0);
+		cheap = productRepository.save(cheap);
+		assertThat(stats(books)).contains(new CategoryStatsDTO(books.getId(), "Stats books", 2, 20.0, 25.0, 30.0));
+
+		cheap.setCategory(games);
+		productRepository.save(cheap);
+		assertThat(stats(books)).contains(new CategoryStatsDTO(books.getId(), "Stats books", 1, 30.0, 30.0, 30.0));
+		assertThat(stats(games)).contains(new CategoryStatsDTO(games.getId(), "Stats games", 1, 20.0, 20.0, 20.0));
+
+		productRepository.save(new Product("Stats pocket book", 5.0, null, books));
+		productRepository.delete(expensive);
+		assertThat(stats(books)).contains(new CategoryStatsDTO(books.getId(), "Stats books", 1, 5.0, 5.0, 5.0));
+	}
+
+	@Test
+	void categoriesAppearRenameAndDisappear() {
+		Category category = category("Stats new");
+		assertThat(stats(category)).isPresent();
+
+		category.setName("Stats renamed");
+		category = categoryRepository.save(category);
+		assertThat(stats(category)).get().extracting(CategoryStatsDTO::getCategoryName).isEqualTo("Stats renamed");
+
+		categoryRepository.delete(category);
+		assertThat(stats(category)).isEmpty();
+	}
+
+	@Test
+	void onlyCommittedTransactionsCount() {
+		Category category = category("Stats transactions");
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			productRepository.save(new Product("Stats first", 10.0, null, category));
+			productRepository.save(new Product("Stats second", 20.0, null, category));
+			productRepository.save(new Product("Stats third", 60.0, null, category));
+		});
+		transactionTemplate.executeWithoutResult(status -> {
+			productRepository.save(new Product("Stats rolled back", 1000.0, null, category));
+			status.setRollbackOnly();
+		});
+
+		assertThat(stats(category)).contains(new CategoryStatsDTO(category.getId(), "Stats transactions", 3, 10.0, 30.0, 60.0));
+	}
+
+	@Test
+	void concurrentCommitsEndInTheDatabaseState() {
+		Category category = category("Stats concurrent");
+
+		List<CompletableFuture<Void>> writers = IntStream.range(0, 8)
+				.mapToObj(writer -> CompletableFuture.runAsync(() -> {
+					for (int i = 0; i < 10; i++) {
+						Product product = productRepository.save(new Product("Stats " + writer + "-" + i, 10.0 + i, null, category));
+						product.setPrice(product.getPrice() + writer);
+						product = productRepository.save(product);
+						if (i % 3 == 0) {
+							productRepository.delete(product);
+						}
+					}
+				}))
+				.toList();
+		writers.forEach(CompletableFuture::join);
+
+		CategoryStatsDTO expected = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*), MIN(price), AVG(price), MAX(price) FROM products WHERE category_id = ?",
+				(rs, row) -> new CategoryStatsDTO(category.getId(), "Stats concurrent", rs.getLong(1),
+						rs.getDouble(2), rs.getDouble(3), rs.getDouble(4)),
+				category.getId());
+		assertThat(stats(category)).contains(expected);
+	}
+
+	@Test
+	void plainSqlChangesNeedARebuild() {
+		Category category = category("Stats plain SQL");
+		jdbcTemplate.update("INSERT INTO products (id, name, price, version, category_id) VALUES (?, ?, ?, 0, ?)",
+				900_001L, "Stats plain SQL product", 42.0, category.getId());
+		assertThat(stats(category)).get().extracting(CategoryStatsDTO::getProductCount).isEqualTo(0L);
+
+		categoryStatsService.rebuild();
+
+		assertThat(stats(category)).contains(new CategoryStatsDTO(category.getId(), "Stats plain SQL", 1, 42.0, 42.0, 42.0));
+	}
+
+	private Category category(String name) {
+		Category category = categoryRepository.save(new Category(name, null));
+		categoryIds.add(category.getId());
+		return category;
+	}
+
+	private Optional<CategoryStatsDTO> stats(Category category) {
+		return categoryStatsService.getStats().stream()
+				.filter(s -> s.getCategoryId().equals(category.getId()))
+				.findFirst();
+	}
+}
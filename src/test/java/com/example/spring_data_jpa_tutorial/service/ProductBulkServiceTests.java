@@ -0,0 +1,144 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.CategoryStatsDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchHitDTO;
+import com.example.spring_data_jpa_tutorial.index.PriceRangeIndex;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Bulk statements bypass entity events: versions, statistics, price index and full-text index must still follow
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1",
+		"app.price-index.enabled=true",
+		"app.lookup.chunk-size=2" // several DELETE statements per request
+})
+class ProductBulkServiceTests {
+
+	@Autowired
+	private ProductBulkService productBulkService;
+
+	@Autowired
+	private CategoryStatsService categoryStatsService;
+
+	@Autowired
+	private PriceRangeIndex priceRangeIndex;
+
+	@Autowired
+	private ProductSearchService productSearchService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category wombats;
+	private Category quokkas;
+	private List<Product> wombatProducts;
+	private Product quokkaProduct;
+
+	@BeforeEach
+	void createCatalog() {
+		wombats = categoryRepository.save(new Category("Bulk wombats", "Bulk test category"));
+		quokkas = categoryRepository.save(new Category("Bulk quokkas", "Bulk test category"));
+		wombatProducts = List.of(
+				productRepository.save(new Product("Wombat plush", 10.0, "Soft", wombats)),
+				productRepository.save(new Product("Wombat mug", 20.0, "Ceramic", wombats)),
+				productRepository.save(new Product("Wombat poster", 30.0, "Paper", wombats)));
+		quokkaProduct = productRepository.save(new Product("Quokka plush", 15.0, "Soft", quokkas));
+	}
+
+	@AfterEach
+	void deleteCatalog() {
+		for (Category category : List.of(wombats, quokkas)) {
+			jdbcTemplate.update("DELETE FROM products WHERE category_id = ?", category.getId());
+			jdbcTemplate.update("DELETE FROM category WHERE id = ?", category.getId());
+		}
+		categoryStatsService.rebuild();
+		priceRangeIndex.rebuild();
+	}
+
+	@Test
+	void priceAdjustmentBumpsVersionsAndUpdatesDerivedData() {
+		assertThat(productBulkService.adjustCategoryPrices(wombats.getId(), 10)).isEqualTo(3);
+
+		for (Product before : wombatProducts) {
+			Product after = productRepository.findById(before.getId()).orElseThrow();
+			assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+			assertThat(after.getPrice()).isEqualTo(Math.round(before.getPrice() * 110) / 100.0);
+		}
+		assertThat(productRepository.findById(quokkaProduct.getId()).orElseThrow().getVersion())
+				.isEqualTo(quokkaProduct.getVersion());
+
+		assertThat(stats(wombats)).contains(new CategoryStatsDTO(wombats.getId(), "Bulk wombats", 3, 11.0, 22.0, 33.0));
+		assertThat(ids(priceRangeIndex.findIdsInRange(wombats.getId(), 30.5, 40.0, 10)))
+				.containsExactly(wombatProducts.get(2).getId());
+		assertThat(priceRangeIndex.findIdsInRange(wombats.getId(), 29.0, 30.0, 10)).isEmpty();
+	}
+
+	@Test
+	void deleteByIdsUpdatesDerivedData() {
+		List<Long> ids = List.of(wombatProducts.get(0).getId(), wombatProducts.get(1).getId(),
+				quokkaProduct.getId(), -1L); // unknown ids are ignored
+
+		assertThat(productBulkService.deleteProducts(ids)).isEqualTo(3);
+
+		assertThat(productRepository.findAllById(ids)).isEmpty();
+		assertThat(stats(wombats)).contains(new CategoryStatsDTO(wombats.getId(), "Bulk wombats", 1, 30.0, 30.0, 30.0));
+		assertThat(stats(quokkas)).contains(new CategoryStatsDTO(quokkas.getId(), "Bulk quokkas", 0, null, null, null));
+		assertThat(ids(priceRangeIndex.findIdsInRange(wombats.getId(), 0.0, 100.0, 10)))
+				.containsExactly(wombatProducts.get(2).getId());
+		assertThat(priceRangeIndex.findIdsInRange(quokkas.getId(), 0.0, 100.0, 10)).isEmpty();
+		assertThat(searchHits("plush")).isEmpty();
+		assertThat(searchHits("wombat")).containsExactly(wombatProducts.get(2).getId());
+	}
+
+	@Test
+	void deleteOfACategoryRemovesExactlyItsProducts() {
+		assertThat(searchHits("wombat")).hasSize(3);
+
+		assertThat(productBulkService.deleteProductsOfCategory(wombats.getId())).isEqualTo(3);
+
+		assertThat(productRepository.findIdsByCategoryId(wombats.getId())).isEmpty();
+		assertThat(productRepository.findById(quokkaProduct.getId())).isPresent();
+		assertThat(stats(wombats)).contains(new CategoryStatsDTO(wombats.getId(), "Bulk wombats", 0, null, null, null));
+		assertThat(stats(quokkas)).contains(new CategoryStatsDTO(quokkas.getId(), "Bulk quokkas", 1, 15.0, 15.0, 15.0));
+		assertThat(priceRangeIndex.findIdsInRange(wombats.getId(), 0.0, 100.0, 10)).isEmpty();
+		assertThat(searchHits("wombat")).isEmpty();
+		assertThat(searchHits("plush")).containsExactly(quokkaProduct.getId());
+	}
+
+	private Optional<CategoryStatsDTO> stats(Category category) {
+		return categoryStatsService.getStats().stream()
+				.filter(stats -> stats.getCategoryId().equals(category.getId()))
+				.findFirst();
+	}
+
+	private List<Long> searchHits(String query) {
+		return productSearchService.search(query, 0, 10).getHits().stream()
+				.map(ProductSearchHitDTO::getProduct)
+				.map(Product::getId)
+				.toList();
+	}
+
+	private static List<Long> ids(long[] ids) {
+		return Arrays.stream(ids).boxed().toList();
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class ProductLookupServiceTests {
+
+	@ParameterizedTest(name = "chunk size {0}")
+	@ValueSource(ints = {0, -1})
+	void nonPositiveChunkSizeFailsAtStartup(int chunkSize) {
+		ProductLookupService service = new ProductLookupService();
+		ReflectionTestUtils.setField(service, "chunkSize", chunkSize);
+
+		assertThatIllegalStateException().isThrownBy(service::checkChunkSize)
+				.withMessageContaining("app.lookup.chunk-size");
+	}
+}
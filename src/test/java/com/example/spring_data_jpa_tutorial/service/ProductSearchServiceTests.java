@@ -0,0 +1,129 @@
+package com.example.spring_data_jpa_tutorial.service;
+
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchHitDTO;
+import com.example.spring_data_jpa_tutorial.dto.ProductSearchResultDTO;
+import com.example.spring_data_jpa_tutorial.dto.SearchIndexStatusDTO;
+import com.example.spring_data_jpa_tutorial.model.Category;
+import com.example.spring_data_jpa_tutorial.model.Product;
+import com.example.spring_data_jpa_tutorial.repository.CategoryRepository;
+import com.example.spring_data_jpa_tutorial.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+@SpringBootTest
+class ProductSearchServiceTests {
+
+	@Autowired
+	private ProductSearchService productSearchService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Category instruments;
+
+	@BeforeEach
+	void createCategory() {
+		instruments = categoryRepository.save(new Category("Search instruments", "Musical instruments"));
+	}
+
+	@AfterEach
+	void deleteTestData() {
+		productRepository.deleteAll(productRepository.findAll().stream()
+				.filter(product -> product.getName().startsWith("Search "))
+				.toList());
+		categoryRepository.delete(instruments);
+	}
+
+	@Test
+	void hitsAreRankedBestMatchFirst() {
+		Product description = productRepository.save(new Product("Search drum", 10.0, "Sounds like a kazoo", instruments));
+		Product nameAndDescription = productRepository.save(new Product("Search kazoo", 5.0, "Kazoo made of tin", instruments));
+		productRepository.save(new Product("Search flute", 20.0, "Wooden", instruments));
+
+		ProductSearchResultDTO result = productSearchService.search("kazoo", 0, 10);
+
+		assertThat(result.getTotalHits()).isEqualTo(2);
+		assertThat(ids(result)).containsExactly(nameAndDescription.getId(), description.getId());
+		assertThat(result.getHits().get(0).getScore()).isGreaterThan(result.getHits().get(1).getScore());
+		// Every word must match, the category description is searched too
+		assertThat(ids(productSearchService.search("kazoo tin", 0, 10))).containsExactly(nameAndDescription.getId());
+		assertThat(ids(productSearchService.search("musical wooden", 0, 10))).hasSize(1);
+	}
+
+	@Test
+	void savedAndDeletedProductsAreIndexedIncrementally() {
+		Product product = productRepository.save(new Product("Search ocarina", 15.0, "Clay", instruments));
+		assertThat(ids(productSearchService.search("ocarina", 0, 10))).containsExactly(product.getId());
+
+		product.setName("Search theremin");
+		product = productRepository.save(product);
+		assertThat(ids(productSearchService.search("ocarina", 0, 10))).isEmpty();
+		assertThat(ids(productSearchService.search("theremin", 0, 10))).containsExactly(product.getId());
+
+		productRepository.delete(product);
+		assertThat(ids(productSearchService.search("theremin", 0, 10))).isEmpty();
+	}
+
+	@Test
+	void rebuildIndexesPlainSqlRowsOneRebuildAtATime() throws Exception {
+		jdbcTemplate.update("INSERT INTO products (id, name, price, description, category_id, version) VALUES (?, ?, ?, ?, ?, 0)",
+				900_101L, "Search bagpipe", 99.0, "Plain SQL", instruments.getId());
+		assertThat(ids(productSearchService.search("bagpipe", 0, 10))).isEmpty();
+
+		CompletableFuture<Void> rebuild = productSearchService.rebuildIndex();
+		if (!rebuild.isDone()) {
+			assertThatIllegalStateException().isThrownBy(() -> productSearchService.rebuildIndex());
+		}
+		rebuild.get(30, TimeUnit.SECONDS);
+
+		SearchIndexStatusDTO status = productSearchService.getIndexStatus();
+		assertThat(status.isRebuilding()).isFalse();
+		assertThat(status.getLastRebuildFinishedAt()).isNotNull();
+		assertThat(status.getLastRebuildError()).isNull();
+		assertThat(ids(productSearchService.search("bagpipe", 0, 10))).containsExactly(900_101L);
+	}
+
+	@Test
+	void lastPageOfTheResultWindowCanBeRead() {
+		ProductSearchResultDTO result = productSearchService.search("laptop", 19, 500); // hits 9500 to 9999
+
+		assertThat(result.getPage()).isEqualTo(19);
+		assertThat(result.getHits()).isEmpty();
+	}
+
+	@Test
+	void pagesBeyondTheResultWindowAreRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> productSearchService.search("laptop", 20, 500));
+		// page * size overflows int
+		assertThatIllegalArgumentException().isThrownBy(() -> productSearchService.search("laptop", Integer.MAX_VALUE, 500));
+		assertThatIllegalArgumentException().isThrownBy(() -> productSearchService.search("laptop", 4_294_968, 500));
+	}
+
+	@Test
+	void negativePageAndEmptySizeAreRejected() {
+		assertThatIllegalArgumentException().isThrownBy(() -> productSearchService.search("laptop", -1, 20));
+		assertThatIllegalArgumentException().isThrownBy(() -> productSearchService.search("laptop", 0, 0));
+	}
+
+	private static List<Long> ids(ProductSearchResultDTO result) {
+		return result.getHits().stream().map(ProductSearchHitDTO::getProduct).map(Product::getId).toList();
+	}
+}